@@ -0,0 +1,106 @@
+package dungeon.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the engine hot paths at several map sizes. Lives in dungeon.engine
+// so it can reach the package-private level and combat methods directly.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class EngineBenchmark
+{
+    private static final String[] DIRECTIONS = {"UP", "DOWN", "LEFT", "RIGHT"};
+
+    // The classic hand-made maze needs at least a 10x10 map
+    @Param({"10", "100", "500"})
+    public int size;
+
+    private GameEngine engine;
+    private SplittableRandom random;
+    private final byte[] moveBatch = new byte[64];
+    private final byte[] outcomes = new byte[64];
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        engine = new GameEngine(size);
+        random = new SplittableRandom(42);
+        for (int i = 0; i < moveBatch.length; i++)
+        {
+            moveBatch[i] = (byte) random.nextInt(4);
+        }
+    }
+
+    // A game lasts at most 100 moves, so the move benchmarks play on their
+    // own engine and start a fresh game outside the measured region when it
+    // ends. Kept apart from the benchmark's state because per-invocation
+    // setup would skew the nanosecond-scale benchmarks that share it.
+    @State(Scope.Thread)
+    public static class LiveGame
+    {
+        private int size;
+        private GameEngine engine;
+
+        @Setup(Level.Trial)
+        public void setUp(EngineBenchmark benchmark)
+        {
+            size = benchmark.size;
+            engine = new GameEngine(size);
+        }
+
+        @Setup(Level.Invocation)
+        public void ensureGameRunning()
+        {
+            if (engine.isGameCompleted() || engine.getGameState().isGameOver())
+            {
+                engine = new GameEngine(size);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean movePlayer(LiveGame game)
+    {
+        return game.engine.movePlayer(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+    }
+
+    // Up to 64 moves per call through the primitive batch API; the gc
+    // profiler should report no allocation here
+    @Benchmark
+    public int applyMoves(LiveGame game)
+    {
+        return game.engine.applyMoves(moveBatch, 0, moveBatch.length, outcomes, 0);
+    }
+
+    @Benchmark
+    public void initializeLevel(Blackhole blackhole)
+    {
+        engine.initializeLevel(true);
+        blackhole.consume(engine.getMap());
+    }
+
+    @Benchmark
+    public void handleRangedAttacks()
+    {
+        engine.handleRangedAttacks();
+    }
+
+    @Benchmark
+    public boolean canRangedMutantShoot()
+    {
+        // Two tiles apart in the same row: the longest line-of-sight walk
+        int row = engine.getGameState().getPlayerPosition().getRow();
+        int col = engine.getGameState().getPlayerPosition().getCol();
+        return engine.canRangedMutantShoot(row, col < 2 ? col + 2 : col - 2, row, col);
+    }
+
+    @Benchmark
+    public Cell createCell()
+    {
+        return CellFactory.createCell("RANGED_MUTANT");
+    }
+}
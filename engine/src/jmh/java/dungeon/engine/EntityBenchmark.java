@@ -0,0 +1,53 @@
+package dungeon.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// A move on a crowded 1000x1000 level: the player steps and every monster
+// gets its turn, then the move is undone so each invocation sees the same
+// level. The gc profiler should report no allocation from the monster turn.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class EntityBenchmark
+{
+    private static final int SIZE = 1000;
+
+    @Param({"1000", "100000"})
+    public int monsters;
+
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Cell[] cells = new Cell[SIZE * SIZE];
+        Arrays.fill(cells, CellFactory.EMPTY);
+        SplittableRandom random = new SplittableRandom(3);
+        int player = SIZE / 2 * SIZE + SIZE / 2;
+        for (int placed = 0; placed < monsters; )
+        {
+            int cell = random.nextInt(cells.length);
+            if (cells[cell] == CellFactory.EMPTY && cell != player)
+            {
+                cells[cell] = CellFactory.MELEE_MUTANT;
+                placed++;
+            }
+        }
+        cells[player] = CellFactory.PLAYER;
+        cells[cells.length - 1] = CellFactory.EXIT;
+        GameState state = new GameState(1, 1, 10, 0, 100, new GameState.Position(SIZE / 2, SIZE / 2));
+        engine = new GameEngine(1L, state, new ArrayMap(SIZE, SIZE, cells), new GameState.Position(SIZE - 1, SIZE - 1),
+                1, 0, false, false, new Replay(1L, SIZE, 1));
+    }
+
+    @Benchmark
+    public boolean moveAndUndo()
+    {
+        engine.movePlayer(Direction.RIGHT);
+        return engine.undo();
+    }
+}
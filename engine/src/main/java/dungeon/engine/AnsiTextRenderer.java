@@ -0,0 +1,157 @@
+package dungeon.engine;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Keeps the board pinned at the top of an ANSI terminal and rewrites only
+// the tiles whose symbol changed, using cursor addressing. Messages, the
+// status line and the prompt scroll in the area below the board, which is
+// cleared at the start of each command. The board has to fit on screen.
+final class AnsiTextRenderer implements TextRenderer
+{
+    private static final byte ESC = 0x1B;
+
+    private final PrintStream out;
+    private final CellPositionConsumer painter = this::paint;
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private byte[] shown = new byte[0]; // symbol on screen per tile
+    private int rows = -1;
+    private int cols = -1;
+    private GameEngine engine; // only set while rendering
+
+    AnsiTextRenderer(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(GameEngine engine)
+    {
+        rows = -1;
+        cols = -1;
+        length = 0;
+        append(ESC).append('[').append('2').append('J'); // clear screen
+        moveTo(engine.getRows() + 3, 1);
+        flush();
+    }
+
+    @Override
+    public void beginCommand()
+    {
+        length = 0;
+        moveTo(rows + 3, 1);
+        append(ESC).append('[').append('J'); // clear to end of screen
+        flush();
+    }
+
+    @Override
+    public void render(GameEngine engine)
+    {
+        this.engine = engine;
+        length = 0;
+        append(ESC).append('7'); // save cursor
+        boolean incremental = engine.getRows() == rows && engine.getCols() == cols
+                && engine.drainChangedCells(painter);
+        if (!incremental)
+        {
+            engine.drainChangedCells((row, col) -> { });
+            redraw(engine.getRows(), engine.getCols());
+        }
+        append(ESC).append('8'); // back to where the text was
+        flush();
+        this.engine = null;
+    }
+
+    private void paint(int row, int col)
+    {
+        byte symbol = TextRenderer.symbolAt(engine, row, col);
+        int index = row * cols + col;
+        if (shown[index] != symbol)
+        {
+            shown[index] = symbol;
+            moveTo(row + 2, 3 + 2 * col);
+            append(symbol);
+        }
+    }
+
+    private void redraw(int rows, int cols)
+    {
+        if (rows != this.rows || cols != this.cols)
+        {
+            this.rows = rows;
+            this.cols = cols;
+            shown = new byte[rows * cols];
+        }
+        int width = cols * 2 + 3;
+        for (int line = 0; line < rows + 2; line++)
+        {
+            moveTo(line + 1, 1);
+            if (line == 0 || line == rows + 1)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    append('-');
+                }
+                continue;
+            }
+            int row = line - 1;
+            append('|');
+            for (int col = 0; col < cols; col++)
+            {
+                byte symbol = TextRenderer.symbolAt(engine, row, col);
+                shown[row * cols + col] = symbol;
+                append(' ').append(symbol);
+            }
+            append(' ').append('|');
+        }
+    }
+
+    // ESC [ row ; col H, 1-based
+    private void moveTo(int row, int col)
+    {
+        append(ESC).append('[');
+        appendNumber(row);
+        append(';');
+        appendNumber(col);
+        append('H');
+    }
+
+    private void appendNumber(int value)
+    {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10)
+        {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--)
+        {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private AnsiTextRenderer append(int b)
+    {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+        return this;
+    }
+
+    private void ensureCapacity(int extra)
+    {
+        if (length + extra > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private void flush()
+    {
+        out.write(buffer, 0, length);
+        out.flush();
+        length = 0;
+    }
+}
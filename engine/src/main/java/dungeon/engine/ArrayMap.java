@@ -0,0 +1,88 @@
+package dungeon.engine;
+
+// The whole level in one row-major array of CellCodes, one byte per cell
+final class ArrayMap implements DungeonMap
+{
+    private final int rows;
+    private final int cols;
+    private final byte[] codes;
+
+    private ArrayMap(int rows, int cols)
+    {
+        this(rows, cols, new byte[Math.multiplyExact(rows, cols)]);
+    }
+
+    // Wraps existing row-major codes, e.g. a level read from a save file
+    ArrayMap(int rows, int cols, byte[] codes)
+    {
+        if (codes.length != Math.multiplyExact(rows, cols))
+        {
+            throw new IllegalArgumentException(codes.length + " cells for a " + rows + "x" + cols + " map");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.codes = codes;
+    }
+
+    // Copies row-major cells, e.g. a level built by hand
+    ArrayMap(int rows, int cols, Cell[] cells)
+    {
+        this(rows, cols);
+        for (int i = 0; i < cells.length; i++)
+        {
+            codes[i] = CellCodes.encode(cells[i]);
+        }
+    }
+
+    // Generates every chunk of the level up front
+    static ArrayMap generate(LevelGenerator generator)
+    {
+        ArrayMap map = new ArrayMap(generator.getRows(), generator.getCols());
+        int chunk = LevelGenerator.CHUNK_SIZE;
+        for (int originRow = 0; originRow < map.rows; originRow += chunk)
+        {
+            for (int originCol = 0; originCol < map.cols; originCol += chunk)
+            {
+                int chunkRows = Math.min(chunk, map.rows - originRow);
+                int chunkCols = Math.min(chunk, map.cols - originCol);
+                byte[] generated = generator.generateChunk(originRow, originCol, chunkRows, chunkCols);
+                for (int row = 0; row < chunkRows; row++)
+                {
+                    System.arraycopy(generated, row * chunkCols,
+                            map.codes, (originRow + row) * map.cols + originCol, chunkCols);
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public int getRows()
+    {
+        return rows;
+    }
+
+    @Override
+    public int getCols()
+    {
+        return cols;
+    }
+
+    @Override
+    public Cell getCell(int row, int col)
+    {
+        return CellCodes.decode(codes[row * cols + col]);
+    }
+
+    @Override
+    public int getCode(int row, int col)
+    {
+        return codes[row * cols + col];
+    }
+
+    @Override
+    public void setCell(int row, int col, Cell cell)
+    {
+        codes[row * cols + col] = CellCodes.encode(cell);
+    }
+}
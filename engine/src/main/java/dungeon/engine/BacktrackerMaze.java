@@ -0,0 +1,126 @@
+package dungeon.engine;
+
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+// Randomized depth-first ("recursive backtracker") maze. Rooms sit on even
+// coordinates and the odd cells between them are walls until carved. The
+// walk is iterative: each room remembers the direction back to the room it
+// was entered from, so backtracking needs no stack and the whole job is one
+// byte per room plus the wall bitset - linear time, bounded memory, fine for
+// 10,000 x 10,000 maps. A spanning tree connects every room, so the entry
+// and exit are always reachable.
+public class BacktrackerMaze implements MazeGenerator
+{
+    private static final byte UNVISITED = 0;
+    private static final byte ROOT = 5;
+    // Direction codes 1..4: up, down, left, right
+    private static final int[] ROW_STEP = {0, -1, 1, 0, 0};
+    private static final int[] COL_STEP = {0, 0, 0, -1, 1};
+    private static final byte[] OPPOSITE = {0, 2, 1, 4, 3};
+
+    private final double loopChance;
+
+    public BacktrackerMaze()
+    {
+        this(0.1);
+    }
+
+    // loopChance: probability of knocking out each remaining wall between two
+    // rooms afterwards. 0 gives a perfect maze; higher values add loops.
+    public BacktrackerMaze(double loopChance)
+    {
+        this.loopChance = loopChance;
+    }
+
+    @Override
+    public void generate(int rows, int cols, RandomGenerator random, BitSet walls)
+    {
+        int roomRows = (rows + 1) / 2;
+        int roomCols = (cols + 1) / 2;
+        byte[] cameFrom = new byte[roomRows * roomCols];
+        int[] candidates = new int[4];
+
+        walls.set(0, rows * cols);
+
+        int room = 0;
+        cameFrom[room] = ROOT;
+        walls.clear(0);
+        while (true)
+        {
+            int roomRow = room / roomCols;
+            int roomCol = room % roomCols;
+
+            int count = 0;
+            for (int direction = 1; direction <= 4; direction++)
+            {
+                int nextRow = roomRow + ROW_STEP[direction];
+                int nextCol = roomCol + COL_STEP[direction];
+                if (nextRow >= 0 && nextRow < roomRows && nextCol >= 0 && nextCol < roomCols
+                        && cameFrom[nextRow * roomCols + nextCol] == UNVISITED)
+                {
+                    candidates[count++] = direction;
+                }
+            }
+
+            if (count > 0)
+            {
+                int direction = candidates[random.nextInt(count)];
+                int row = roomRow * 2;
+                int col = roomCol * 2;
+                walls.clear((row + ROW_STEP[direction]) * cols + col + COL_STEP[direction]);
+                walls.clear((row + 2 * ROW_STEP[direction]) * cols + col + 2 * COL_STEP[direction]);
+                room = (roomRow + ROW_STEP[direction]) * roomCols + roomCol + COL_STEP[direction];
+                cameFrom[room] = OPPOSITE[direction];
+            }
+            else if (cameFrom[room] == ROOT)
+            {
+                break;
+            }
+            else
+            {
+                int back = cameFrom[room];
+                room = (roomRow + ROW_STEP[back]) * roomCols + roomCol + COL_STEP[back];
+            }
+        }
+
+        if (loopChance > 0)
+        {
+            addLoops(rows, cols, random, walls);
+        }
+        connectExit(rows, cols, walls);
+    }
+
+    // Wall cells with rooms on both sides have exactly one odd coordinate
+    private void addLoops(int rows, int cols, RandomGenerator random, BitSet walls)
+    {
+        for (int row = 0; row < rows; row++)
+        {
+            int start = (row % 2 == 0) ? 1 : 0;
+            for (int col = start; col < cols; col += 2)
+            {
+                boolean between = (row % 2 == 0) ? col + 1 < cols : row + 1 < rows;
+                if (between && walls.get(row * cols + col) && random.nextDouble() < loopChance)
+                {
+                    walls.clear(row * cols + col);
+                }
+            }
+        }
+    }
+
+    // With an even dimension the last row or column holds no rooms, so dig
+    // from the nearest room to the bottom-right corner
+    private void connectExit(int rows, int cols, BitSet walls)
+    {
+        int roomRow = (rows - 1) / 2 * 2;
+        int roomCol = (cols - 1) / 2 * 2;
+        for (int row = roomRow; row < rows; row++)
+        {
+            walls.clear(row * cols + roomCol);
+        }
+        for (int col = roomCol; col < cols; col++)
+        {
+            walls.clear((rows - 1) * cols + col);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package dungeon.engine;
+
+// Pure game-model tile. Rendering lives in the front ends (TextUI symbols,
+// dungeon.gui.CellView images), so the engine never touches JavaFX.
+public abstract class Cell
+{
+    // Method to interact with player, returns true if interaction was handled.
+    // What happened is reported to the sink rather than printed.
+    public abstract boolean interact(GameState gameState, GameEventSink events);
+    
+    // Method to check if cell blocks movement
+    public abstract boolean blocksMovement();
+    
+    // Method to get cell type (for UI to determine display)
+    public abstract String getType();
+
+    // Index into the CellCodes tables; also how the cell is stored in maps
+    public abstract int getCode();
+}
\ No newline at end of file
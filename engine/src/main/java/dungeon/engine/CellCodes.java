@@ -0,0 +1,118 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Stable one-byte codes for cell types, and what the engine and front ends
+// need to know about each type, in tables indexed by code. Levels are
+// stored as grids of these codes (ArrayMap, ChunkedMap, MapSnapshot), and
+// the codes are written out wherever cells become bytes (spilled chunks,
+// the undo journal). New types must be appended, never reordered.
+public final class CellCodes
+{
+    static final byte EMPTY = 0;
+    static final byte WALL = 1;
+    static final byte GOLD = 2;
+    static final byte HEALTH_POTION = 3;
+    static final byte TRAP = 4;
+    static final byte MELEE_MUTANT = 5;
+    static final byte RANGED_MUTANT = 6;
+    static final byte PLAYER = 7;
+    static final byte ENTRY = 8;
+    static final byte EXIT = 9;
+
+    private static final Cell[] CELLS = {
+            CellFactory.EMPTY, CellFactory.WALL, CellFactory.GOLD, CellFactory.HEALTH_POTION, CellFactory.TRAP,
+            CellFactory.MELEE_MUTANT, CellFactory.RANGED_MUTANT, CellFactory.PLAYER, CellFactory.ENTRY,
+            CellFactory.EXIT,
+    };
+    // What TextUI draws for each code
+    private static final byte[] SYMBOLS = {'.', '#', 'G', 'H', 'T', 'M', 'R', 'P', 'E', 'L'};
+    private static final boolean[] BLOCKS_MOVEMENT = new boolean[CELLS.length];
+    private static final boolean[] BLOCKS_SIGHT = new boolean[CELLS.length];
+    // What the validator requires to be reachable
+    private static final boolean[] COLLECTIBLE = new boolean[CELLS.length];
+    // EntityStore type of each monster code, -1 for everything else
+    private static final byte[] MONSTER_TYPES = new byte[CELLS.length];
+
+    static
+    {
+        for (int code = 0; code < CELLS.length; code++)
+        {
+            BLOCKS_MOVEMENT[code] = CELLS[code].blocksMovement();
+        }
+        BLOCKS_SIGHT[WALL] = true;
+        COLLECTIBLE[GOLD] = true;
+        COLLECTIBLE[HEALTH_POTION] = true;
+        Arrays.fill(MONSTER_TYPES, (byte) -1);
+        MONSTER_TYPES[MELEE_MUTANT] = EntityStore.MELEE;
+        MONSTER_TYPES[RANGED_MUTANT] = EntityStore.RANGED;
+    }
+
+    private CellCodes()
+    {
+    }
+
+    public static int count()
+    {
+        return CELLS.length;
+    }
+
+    // The Cell.getType name of a code, e.g. for front ends building their
+    // own per-code tables
+    public static String typeName(int code)
+    {
+        return CELLS[code].getType();
+    }
+
+    // The code of a Cell.getType name, or -1 for names no cell has
+    static int forTypeName(String typeName)
+    {
+        for (int code = 0; code < CELLS.length; code++)
+        {
+            if (CELLS[code].getType().equals(typeName))
+            {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    static byte encode(Cell cell)
+    {
+        return (byte) cell.getCode();
+    }
+
+    static Cell decode(int code)
+    {
+        if (code < 0 || code >= CELLS.length)
+        {
+            throw new IllegalArgumentException("Unknown cell code " + code);
+        }
+        return CELLS[code];
+    }
+
+    static boolean blocksMovement(int code)
+    {
+        return BLOCKS_MOVEMENT[code];
+    }
+
+    static boolean blocksSight(int code)
+    {
+        return BLOCKS_SIGHT[code];
+    }
+
+    static boolean isCollectible(int code)
+    {
+        return COLLECTIBLE[code];
+    }
+
+    static int monsterType(int code)
+    {
+        return MONSTER_TYPES[code];
+    }
+
+    static byte symbol(int code)
+    {
+        return SYMBOLS[code];
+    }
+}
@@ -0,0 +1,318 @@
+package dungeon.engine;
+
+// Cells hold no state of their own, so every tile of a type shares one
+// instance and creating a cell never allocates
+public class CellFactory
+{
+    static final Cell EMPTY = new EmptyCell();
+    static final Cell WALL = new WallCell();
+    static final Cell GOLD = new GoldCell();
+    static final Cell HEALTH_POTION = new HealthPotionCell();
+    static final Cell TRAP = new TrapCell();
+    static final Cell MELEE_MUTANT = new MeleeMutantCell();
+    static final Cell RANGED_MUTANT = new RangedMutantCell();
+    static final Cell PLAYER = new PlayerCell();
+    static final Cell ENTRY = new EntryCell();
+    static final Cell EXIT = new ExitCell();
+
+    public static Cell createCell(String type)
+    {
+        return switch (type)
+        {
+            case "EMPTY" -> EMPTY;
+            case "WALL" -> WALL;
+            case "GOLD" -> GOLD;
+            case "HEALTH_POTION" -> HEALTH_POTION;
+            case "TRAP" -> TRAP;
+            case "MELEE_MUTANT" -> MELEE_MUTANT;
+            case "RANGED_MUTANT" -> RANGED_MUTANT;
+            case "PLAYER" -> PLAYER;
+            case "ENTRY" -> ENTRY;
+            case "EXIT" -> EXIT;
+            default -> EMPTY;
+        };
+    }
+}
+
+class EmptyCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "EMPTY";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.EMPTY;
+    }
+}
+
+class WallCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return true;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "WALL";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.WALL;
+    }
+}
+
+class GoldCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        gameState.addScore(10);
+        events.onEvent(GameEventType.GOLD_FOUND, 10, gameState);
+        return true;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "GOLD";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.GOLD;
+    }
+}
+
+class HealthPotionCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        int oldHP = gameState.getPlayerHP();
+        gameState.changeHP(4);
+        int healedAmount = gameState.getPlayerHP() - oldHP;
+        events.onEvent(GameEventType.HEALTH_POTION, healedAmount, gameState);
+        return true;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "HEALTH_POTION";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.HEALTH_POTION;
+    }
+}
+
+class TrapCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        gameState.changeHP(-1);
+        events.onEvent(GameEventType.TRAP, 1, gameState);
+        return true;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "TRAP";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.TRAP;
+    }
+}
+
+class MeleeMutantCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        gameState.changeHP(-2);
+        gameState.addScore(2);
+        events.onEvent(GameEventType.MELEE_MUTANT_DEFEATED, 2, gameState);
+        return true;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "MELEE_MUTANT";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.MELEE_MUTANT;
+    }
+}
+
+class RangedMutantCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        gameState.addScore(2);
+        events.onEvent(GameEventType.RANGED_MUTANT_DEFEATED, 2, gameState);
+        return true;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "RANGED_MUTANT";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.RANGED_MUTANT;
+    }
+}
+
+class PlayerCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "PLAYER";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.PLAYER;
+    }
+}
+
+class EntryCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "ENTRY";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.ENTRY;
+    }
+}
+
+class ExitCell extends Cell
+{
+    @Override
+    public boolean interact(GameState gameState, GameEventSink events)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean blocksMovement()
+    {
+        return false;
+    }
+
+    @Override
+    public String getType()
+    {
+        return "EXIT";
+    }
+
+    @Override
+    public int getCode()
+    {
+        return CellCodes.EXIT;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package dungeon.engine;
+
+// Receives map positions, e.g. the cells reported by GameEngine.drainChangedCells
+@FunctionalInterface
+public interface CellPositionConsumer
+{
+    void accept(int row, int col);
+}
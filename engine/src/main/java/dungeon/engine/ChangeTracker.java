@@ -0,0 +1,66 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Records which cells were written since the last drain so renderers can
+// repaint only those. A full reset (new level) collapses to a single flag.
+// Positions are deduplicated by key, so the cost does not depend on map size.
+final class ChangeTracker
+{
+    private final LongIntHashMap marked = new LongIntHashMap();
+    private int[] rows = new int[16];
+    private int[] cols = new int[16];
+    private int count;
+    private boolean all = true;
+
+    void mark(int row, int col)
+    {
+        if (all)
+        {
+            return;
+        }
+        long key = RangedThreatIndex.key(row, col);
+        if (marked.get(key) != 0)
+        {
+            return;
+        }
+        marked.put(key, 1);
+        if (count == rows.length)
+        {
+            rows = Arrays.copyOf(rows, count * 2);
+            cols = Arrays.copyOf(cols, count * 2);
+        }
+        rows[count] = row;
+        cols[count] = col;
+        count++;
+    }
+
+    void markAll()
+    {
+        all = true;
+        clearMarks();
+    }
+
+    // Passes each changed position to the consumer; returns false without
+    // calling it when everything changed
+    boolean drain(CellPositionConsumer consumer)
+    {
+        if (all)
+        {
+            all = false;
+            return false;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            consumer.accept(rows[i], cols[i]);
+        }
+        clearMarks();
+        return true;
+    }
+
+    private void clearMarks()
+    {
+        marked.clear();
+        count = 0;
+    }
+}
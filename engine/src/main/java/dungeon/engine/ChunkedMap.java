@@ -0,0 +1,279 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// A level streamed in CHUNK_SIZE x CHUNK_SIZE chunks. Chunks are generated
+// on first access, and the least recently used one is evicted once more than
+// `capacity` are resident. An evicted chunk that was never modified is simply
+// regenerated from the level seed next time; a modified one is spilled to a
+// temporary file first. Memory therefore stays bounded by the cache size no
+// matter how large the level is.
+final class ChunkedMap implements DungeonMap
+{
+    // Tells the engine which regions enter and leave memory so it can keep
+    // per-cell indexes (ranged mutants) limited to resident chunks
+    interface Listener
+    {
+        void chunkLoaded(int originRow, int originCol, int rows, int cols);
+
+        void chunkEvicting(int originRow, int originCol, int rows, int cols);
+    }
+
+    private static final int CHUNK_SIZE = LevelGenerator.CHUNK_SIZE;
+
+    private static final class Chunk
+    {
+        final long key;
+        final int originRow;
+        final int originCol;
+        final int rows;
+        final int cols;
+        final byte[] codes; // CellCodes, row-major
+        boolean dirty;
+        long lastUsed;
+
+        Chunk(long key, int originRow, int originCol, int rows, int cols, byte[] codes)
+        {
+            this.key = key;
+            this.originRow = originRow;
+            this.originCol = originCol;
+            this.rows = rows;
+            this.cols = cols;
+            this.codes = codes;
+        }
+    }
+
+    private final LevelGenerator generator;
+    private final int capacity;
+    private final Listener listener;
+    private final Map<Long, Chunk> resident = new HashMap<>();
+    private final Set<Long> spilled = new HashSet<>();
+    private Path spillDirectory; // created on the first spill
+    private Chunk lastChunk;     // most reads hit the chunk the player is in
+    private long clock;
+
+    ChunkedMap(LevelGenerator generator, int capacity, Listener listener)
+    {
+        if (capacity < 4)
+        {
+            throw new IllegalArgumentException("At least 4 chunks must fit in memory, got " + capacity);
+        }
+        this.generator = generator;
+        this.capacity = capacity;
+        this.listener = listener;
+    }
+
+    @Override
+    public int getRows()
+    {
+        return generator.getRows();
+    }
+
+    @Override
+    public int getCols()
+    {
+        return generator.getCols();
+    }
+
+    int residentChunks()
+    {
+        return resident.size();
+    }
+
+    @Override
+    public Cell getCell(int row, int col)
+    {
+        return CellCodes.decode(getCode(row, col));
+    }
+
+    @Override
+    public int getCode(int row, int col)
+    {
+        Chunk chunk = chunkAt(row, col, true);
+        return chunk.codes[(row - chunk.originRow) * chunk.cols + (col - chunk.originCol)];
+    }
+
+    @Override
+    public Cell peekCell(int row, int col)
+    {
+        Chunk chunk = chunkAt(row, col, false);
+        return chunk == null ? null
+                : CellCodes.decode(chunk.codes[(row - chunk.originRow) * chunk.cols + (col - chunk.originCol)]);
+    }
+
+    @Override
+    public int peekCode(int row, int col)
+    {
+        Chunk chunk = chunkAt(row, col, false);
+        return chunk == null ? -1 : chunk.codes[(row - chunk.originRow) * chunk.cols + (col - chunk.originCol)];
+    }
+
+    @Override
+    public void setCell(int row, int col, Cell cell)
+    {
+        Chunk chunk = chunkAt(row, col, true);
+        chunk.codes[(row - chunk.originRow) * chunk.cols + (col - chunk.originCol)] = CellCodes.encode(cell);
+        chunk.dirty = true;
+    }
+
+    @Override
+    public void prefetch(int row, int col, int radius)
+    {
+        int firstRow = Math.max(0, row - radius) / CHUNK_SIZE;
+        int lastRow = Math.min(getRows() - 1, row + radius) / CHUNK_SIZE;
+        int firstCol = Math.max(0, col - radius) / CHUNK_SIZE;
+        int lastCol = Math.min(getCols() - 1, col + radius) / CHUNK_SIZE;
+        for (int chunkRow = firstRow; chunkRow <= lastRow; chunkRow++)
+        {
+            for (int chunkCol = firstCol; chunkCol <= lastCol; chunkCol++)
+            {
+                chunkAt(chunkRow * CHUNK_SIZE, chunkCol * CHUNK_SIZE, true);
+            }
+        }
+        // Leave the player's own chunk as the fast-path entry
+        chunkAt(row, col, true);
+    }
+
+    @Override
+    public void close()
+    {
+        resident.clear();
+        lastChunk = null;
+        if (spillDirectory != null)
+        {
+            try
+            {
+                for (Long key : spilled)
+                {
+                    Files.deleteIfExists(spillFile(key));
+                }
+                Files.deleteIfExists(spillDirectory);
+            }
+            catch (IOException e)
+            {
+                System.err.println("Error removing spilled chunks: " + e.getMessage());
+            }
+            spilled.clear();
+        }
+    }
+
+    private Chunk chunkAt(int row, int col, boolean load)
+    {
+        long key = ((long) (row / CHUNK_SIZE) << 32) | (col / CHUNK_SIZE);
+        Chunk chunk = lastChunk;
+        if (chunk == null || chunk.key != key)
+        {
+            chunk = resident.get(key);
+            if (chunk == null)
+            {
+                if (!load)
+                {
+                    return null;
+                }
+                chunk = load(key, row / CHUNK_SIZE * CHUNK_SIZE, col / CHUNK_SIZE * CHUNK_SIZE);
+            }
+            lastChunk = chunk;
+        }
+        chunk.lastUsed = ++clock;
+        return chunk;
+    }
+
+    private Chunk load(long key, int originRow, int originCol)
+    {
+        int rows = Math.min(CHUNK_SIZE, getRows() - originRow);
+        int cols = Math.min(CHUNK_SIZE, getCols() - originCol);
+        byte[] codes = spilled.contains(key)
+                ? readSpilled(key, rows * cols)
+                : LevelValidator.generateConnectedChunk(generator, originRow, originCol, rows, cols);
+
+        Chunk chunk = new Chunk(key, originRow, originCol, rows, cols, codes);
+        chunk.lastUsed = ++clock;
+        resident.put(key, chunk);
+        listener.chunkLoaded(originRow, originCol, rows, cols);
+
+        while (resident.size() > capacity)
+        {
+            evictLeastRecentlyUsed(chunk);
+        }
+        return chunk;
+    }
+
+    // Capacity is small, so a linear scan for the oldest chunk is cheaper
+    // than keeping an ordered structure up to date on every access
+    private void evictLeastRecentlyUsed(Chunk keep)
+    {
+        Chunk oldest = null;
+        for (Chunk chunk : resident.values())
+        {
+            if (chunk != keep && (oldest == null || chunk.lastUsed < oldest.lastUsed))
+            {
+                oldest = chunk;
+            }
+        }
+        listener.chunkEvicting(oldest.originRow, oldest.originCol, oldest.rows, oldest.cols);
+        if (oldest.dirty)
+        {
+            writeSpilled(oldest);
+        }
+        resident.remove(oldest.key);
+        if (lastChunk == oldest)
+        {
+            lastChunk = null;
+        }
+    }
+
+    private void writeSpilled(Chunk chunk)
+    {
+        try
+        {
+            if (spillDirectory == null)
+            {
+                spillDirectory = Files.createTempDirectory("dungeon-chunks");
+                spillDirectory.toFile().deleteOnExit();
+            }
+            Path file = spillFile(chunk.key);
+            Files.write(file, chunk.codes);
+            if (spilled.add(chunk.key))
+            {
+                file.toFile().deleteOnExit();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot spill chunk to disk", e);
+        }
+    }
+
+    private byte[] readSpilled(long key, int length)
+    {
+        try
+        {
+            byte[] codes = Files.readAllBytes(spillFile(key));
+            if (codes.length != length)
+            {
+                throw new IOException("Spilled chunk has " + codes.length + " cells, expected " + length);
+            }
+            for (byte code : codes)
+            {
+                CellCodes.decode(code); // fail on unknown codes now, not on a later read
+            }
+            return codes;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot read spilled chunk", e);
+        }
+    }
+
+    private Path spillFile(long key)
+    {
+        return spillDirectory.resolve("chunk-" + (key >>> 32) + "-" + (key & 0xFFFFFFFFL) + ".bin");
+    }
+}
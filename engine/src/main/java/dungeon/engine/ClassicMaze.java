@@ -0,0 +1,32 @@
+package dungeon.engine;
+
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+// The original fixed 40-wall layout. Only defined for a 10x10 map.
+public class ClassicMaze implements MazeGenerator
+{
+    static final int SIZE = 10;
+
+    private static final int[][] WALL_COORDINATES = new int[][]{
+            {0, 1}, {1, 1}, {2, 1}, {2, 2}, {2, 3}, {1, 3}, {2, 5}, {2, 6},
+            {4, 3}, {4, 4}, {4, 5}, {4, 6}, {3, 5}, {1, 5}, {0, 7}, {0, 8},
+            {4, 1}, {5, 1}, {6, 1}, {6, 0}, {8, 1}, {8, 2}, {9, 2}, {8, 3},
+            {2, 8}, {2, 7}, {4, 8}, {5, 8}, {6, 8}, {6, 9}, {6, 7}, {6, 6},
+            {6, 3}, {6, 4}, {5, 4}, {8, 5}, {8, 6}, {7, 6}, {8, 8}, {9, 8},
+    };
+
+    @Override
+    public void generate(int rows, int cols, RandomGenerator random, BitSet walls)
+    {
+        if (rows != SIZE || cols != SIZE)
+        {
+            throw new IllegalArgumentException("The classic maze is " + SIZE + "x" + SIZE
+                    + ", not " + rows + "x" + cols);
+        }
+        for (int[] coordinate : WALL_COORDINATES)
+        {
+            walls.set(coordinate[0] * cols + coordinate[1]);
+        }
+    }
+}
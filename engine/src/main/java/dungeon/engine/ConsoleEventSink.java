@@ -0,0 +1,20 @@
+package dungeon.engine;
+
+import java.io.PrintStream;
+
+// Prints each event as a line of text, as the console game always has
+public class ConsoleEventSink implements GameEventSink
+{
+    private final PrintStream out;
+
+    public ConsoleEventSink(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    @Override
+    public void onEvent(GameEventType type, int amount, GameState state)
+    {
+        out.println(type.describe(amount, state.getScore(), state.getCurrentLevel()));
+    }
+}
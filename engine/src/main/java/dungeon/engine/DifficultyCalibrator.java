@@ -0,0 +1,122 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tunes the per-difficulty level densities so that a route-planning bot
+// wins a target share of games. For each difficulty the traps and mutants
+// of the built-in table are scaled by one factor, found by bisection on the
+// simulated win rate; gold and potions are left alone. Every candidate is
+// played on the same game seeds, so the comparison between two factors is
+// not swamped by which levels happened to be drawn.
+public class DifficultyCalibrator
+{
+    // Win rates aimed for at difficulty 1, 2 and 3
+    static final double[] DEFAULT_TARGETS = {0.6, 0.4, 0.2};
+
+    private static final int SEARCH_STEPS = 10;
+    private static final double MAX_FACTOR = 8.0;
+
+    private final int size;
+    private final long games;
+    private final long seed;
+    private final MovePolicy policy;
+
+    public DifficultyCalibrator(int size, long games, long seed)
+    {
+        this(size, games, seed, MovePolicy.routePlanner());
+    }
+
+    DifficultyCalibrator(int size, long games, long seed, MovePolicy policy)
+    {
+        this.size = size;
+        this.games = games;
+        this.seed = seed;
+        this.policy = policy;
+    }
+
+    // Share of games the policy escapes from on levels with these densities
+    public double winRate(int difficultyLevel, LevelParameters parameters)
+    {
+        LongAdder wins = new LongAdder();
+        new SimulationRunner(size, difficultyLevel, parameters, policy, seed).run(games, result -> {
+            if (result.outcome() == GameResult.Outcome.ESCAPED)
+            {
+                wins.increment();
+            }
+        });
+        return wins.doubleValue() / games;
+    }
+
+    // Densities for one difficulty whose win rate is closest to the target.
+    // If even a hazard-free level is won less often than the target, the
+    // hazard-free level is the best that scaling can do.
+    public LevelParameters calibrate(int difficultyLevel, double targetWinRate)
+    {
+        LevelParameters base = LevelParameters.defaultsFor(difficultyLevel);
+
+        // Win rate falls as hazards grow: find a factor that is too hard
+        double low = 0;
+        double high = 1;
+        double highRate = winRate(difficultyLevel, base);
+        while (highRate > targetWinRate && high < MAX_FACTOR)
+        {
+            low = high;
+            high = Math.min(high * 2, MAX_FACTOR);
+            highRate = winRate(difficultyLevel, base.withHazardsScaled(high));
+        }
+        if (highRate > targetWinRate)
+        {
+            return base.withHazardsScaled(high);
+        }
+
+        double best = high;
+        double bestError = Math.abs(highRate - targetWinRate);
+        for (int step = 0; step < SEARCH_STEPS; step++)
+        {
+            double middle = (low + high) / 2;
+            double rate = winRate(difficultyLevel, base.withHazardsScaled(middle));
+            if (Math.abs(rate - targetWinRate) < bestError)
+            {
+                best = middle;
+                bestError = Math.abs(rate - targetWinRate);
+            }
+            if (rate > targetWinRate)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return base.withHazardsScaled(best);
+    }
+
+    // Usage: DifficultyCalibrator [games per candidate] [size] [output file] [seed]
+    public static void main(String[] args) throws IOException
+    {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 2_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path output = Path.of(args.length > 2 ? args[2] : LevelParameters.DEFAULT_CONFIG_FILE);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        DifficultyCalibrator calibrator = new DifficultyCalibrator(size, games, seed);
+        LevelParameters[] table = new LevelParameters[LevelParameters.difficultyLevels()];
+        long start = System.nanoTime();
+        for (int level = 1; level <= table.length; level++)
+        {
+            double target = DEFAULT_TARGETS[Math.min(level, DEFAULT_TARGETS.length) - 1];
+            table[level - 1] = calibrator.calibrate(level, target);
+            System.out.printf("Difficulty %d: target %.0f%%, reached %.1f%% with %s%n", level, 100 * target,
+                    100 * calibrator.winRate(level, table[level - 1]), table[level - 1]);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LevelParameters.store(table, output,
+                String.format("Calibrated on %dx%d maps, %d games per candidate, seed %d", size, size, games, seed));
+        System.out.printf("Wrote %s in %.1fs on %d cores%n", output, seconds,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
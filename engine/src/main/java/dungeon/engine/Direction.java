@@ -0,0 +1,43 @@
+package dungeon.engine;
+
+// The four player moves. The ordinal doubles as the 2-bit code used by Replay.
+public enum Direction
+{
+    UP(-1, 0),
+    DOWN(1, 0),
+    LEFT(0, -1),
+    RIGHT(0, 1);
+
+    private static final Direction[] BY_CODE = values();
+
+    private final int rowDelta;
+    private final int colDelta;
+
+    Direction(int rowDelta, int colDelta)
+    {
+        this.rowDelta = rowDelta;
+        this.colDelta = colDelta;
+    }
+
+    public int getRowDelta() { return rowDelta; }
+    public int getColDelta() { return colDelta; }
+    public int code() { return ordinal(); }
+
+    public static Direction fromCode(int code)
+    {
+        return BY_CODE[code];
+    }
+
+    // Parses the command words used by TextUI and the GUI; null if unknown
+    public static Direction fromName(String name)
+    {
+        return switch (name)
+        {
+            case "UP" -> UP;
+            case "DOWN" -> DOWN;
+            case "LEFT" -> LEFT;
+            case "RIGHT" -> RIGHT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package dungeon.engine;
+
+// Cell storage for one level. GameEngine reads and writes the map only
+// through this interface, so a level can live fully in memory (ArrayMap) or
+// be streamed chunk by chunk (ChunkedMap).
+public interface DungeonMap
+{
+    int getRows();
+
+    int getCols();
+
+    Cell getCell(int row, int col);
+
+    // The CellCodes code of getCell, without going through a Cell
+    default int getCode(int row, int col)
+    {
+        return getCell(row, col).getCode();
+    }
+
+    void setCell(int row, int col, Cell cell);
+
+    // Like getCell, but never loads or generates anything: returns null if
+    // the cell is not currently held in memory
+    default Cell peekCell(int row, int col)
+    {
+        return getCell(row, col);
+    }
+
+    // The code of peekCell, or -1 if the cell is not held in memory
+    default int peekCode(int row, int col)
+    {
+        return getCode(row, col);
+    }
+
+    // Hint that the player is at (row, col); streamed maps load the
+    // surrounding area ahead of time
+    default void prefetch(int row, int col, int radius)
+    {
+    }
+
+    default boolean inBounds(int row, int col)
+    {
+        return row >= 0 && row < getRows() && col >= 0 && col < getCols();
+    }
+
+    // Releases anything held outside the heap, such as spilled chunks
+    default void close()
+    {
+    }
+}
@@ -0,0 +1,94 @@
+package dungeon.engine;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms for one or more engines. All recording is
+// thread-safe and allocation-free, so a single registry can be shared by
+// every game in a SimulationRunner or GameServer. An engine without a
+// registry (the default) skips the clock reads and counting altogether.
+//
+// Run with -Ddungeon.metrics=true to give every new engine the shared
+// registry, e.g. for a server whose engines are created per connection.
+public final class EngineMetrics
+{
+    static final String ENABLE_PROPERTY = "dungeon.metrics";
+
+    private static final GameEventType[] EVENT_TYPES = GameEventType.values();
+    private static final EngineMetrics SHARED = new EngineMetrics();
+    private static final boolean ENABLED_BY_DEFAULT = Boolean.getBoolean(ENABLE_PROPERTY);
+
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram levelGeneration = new LatencyHistogram();
+    private final LongAdder[] movesByStatus = adders(MoveOutcome.STATUS_MASK + 1);
+    private final LongAdder[] events = adders(EVENT_TYPES.length);
+    private final LongAdder[] interactions = adders(CellCodes.count());
+
+    private static LongAdder[] adders(int count)
+    {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // The process-wide registry used by -Ddungeon.metrics=true
+    public static EngineMetrics shared()
+    {
+        return SHARED;
+    }
+
+    // What a newly built engine records into: null unless enabled by property
+    static EngineMetrics forNewEngine()
+    {
+        return ENABLED_BY_DEFAULT ? SHARED : null;
+    }
+
+    void recordMove(int outcome, long nanos)
+    {
+        moveLatency.record(nanos);
+        movesByStatus[MoveOutcome.status((byte) outcome)].increment();
+    }
+
+    void recordLevelGenerated(long nanos)
+    {
+        levelGeneration.record(nanos);
+    }
+
+    void recordEvent(GameEventType type)
+    {
+        events[type.ordinal()].increment();
+    }
+
+    void recordInteraction(Cell cell)
+    {
+        interactions[CellCodes.encode(cell)].increment();
+    }
+
+    // Counters are read one by one, so a snapshot taken during play can be a
+    // move or two apart between counters; each value is exact on its own
+    public MetricsSnapshot snapshot()
+    {
+        Map<String, Long> counters = new TreeMap<>();
+        counters.put("moves.moved", movesByStatus[MoveOutcome.MOVED].sum());
+        counters.put("moves.blocked", movesByStatus[MoveOutcome.BLOCKED].sum());
+        counters.put("moves.finished", movesByStatus[MoveOutcome.FINISHED].sum());
+        counters.put("moves.badDirection", movesByStatus[MoveOutcome.BAD_DIRECTION].sum());
+        for (GameEventType type : EVENT_TYPES)
+        {
+            counters.put("events." + type.name(), events[type.ordinal()].sum());
+        }
+        for (int code = 0; code < interactions.length; code++)
+        {
+            counters.put("interactions." + CellCodes.typeName(code), interactions[code].sum());
+        }
+
+        Map<String, LatencyHistogram.Snapshot> latencies = new TreeMap<>();
+        latencies.put("move", moveLatency.snapshot());
+        latencies.put("levelGeneration", levelGeneration.snapshot());
+        return new MetricsSnapshot(counters, latencies);
+    }
+}
@@ -0,0 +1,16 @@
+package dungeon.engine;
+
+// What the game looked like after a move, for readers on other threads:
+// renderers, autosave, spectators. The engine builds a new one after every
+// change and publishes it through a single atomic reference, so a reader
+// always sees one consistent move, never half of one. Nothing in it
+// changes after publication.
+//
+// version counts publications; mapVersion counts map writes, so it only
+// moves when a cell changed. map is null for streamed engines, whose
+// levels are too big to copy.
+public record EngineSnapshot(long version, int rows, int cols, int difficultyLevel, int level,
+                             int playerHP, int score, int movesLeft, int playerRow, int playerCol,
+                             boolean gameCompleted, boolean gameWon, long mapVersion, MapSnapshot map)
+{
+}
@@ -0,0 +1,252 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// The monsters of the current level, one slot per monster in parallel
+// primitive arrays rather than an object each, so a level can hold hundreds
+// of thousands of them without any per-monster objects. A position index
+// finds the slot on a cell, and once a level holds enough monsters each
+// 16x16 block of the map chains its slots together so a turn only visits
+// the monsters near the player.
+// Removal moves the last slot into the hole, so slot numbers are not
+// stable; callers that need to find a monster again keep its position.
+//
+// GameEngine mirrors every map write that places or removes a mutant here,
+// so the map stays the truth for where monsters are. The store adds what
+// the map cannot hold: when each monster may act again.
+final class EntityStore
+{
+    static final byte MELEE = 0;
+    static final byte RANGED = 1;
+
+    // A monster that has never moved may act at once
+    static final int READY = Integer.MAX_VALUE;
+
+    static final int BLOCK_BITS = 4;
+    // Fewer monsters than this are cheaper to walk than to chain by block
+    private static final int BLOCKS_FROM = 256;
+
+    private int[] rows;
+    private int[] cols;
+    private byte[] types;
+    private int[] restUntil; // acts again once movesLeft has dropped to this
+    private int[] next;      // next slot in the same block, or -1
+    private int[] previous;  // previous slot in the same block, or -1
+    private int count;
+    private boolean chained; // blocks and next/previous are kept
+    private final LongIntHashMap slots = new LongIntHashMap();  // cell -> slot + 1
+    private final LongIntHashMap blocks = new LongIntHashMap(); // block -> first slot + 1
+
+    EntityStore()
+    {
+        allocate(16);
+    }
+
+    private void allocate(int capacity)
+    {
+        rows = new int[capacity];
+        cols = new int[capacity];
+        types = new byte[capacity];
+        restUntil = new int[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+    }
+
+    // The store type of a cell, or -1 for cells that are not monsters
+    static int typeOf(Cell cell)
+    {
+        return CellCodes.monsterType(cell.getCode());
+    }
+
+    int size()
+    {
+        return count;
+    }
+
+    int capacity()
+    {
+        return rows.length;
+    }
+
+    int row(int slot) { return rows[slot]; }
+    int col(int slot) { return cols[slot]; }
+    byte type(int slot) { return types[slot]; }
+    int restUntil(int slot) { return restUntil[slot]; }
+
+    boolean isResting(int slot, int movesLeft)
+    {
+        return restUntil[slot] < movesLeft;
+    }
+
+    // The slot of the monster on a cell, or -1
+    int slotAt(int row, int col)
+    {
+        return slots.get(RangedThreatIndex.key(row, col)) - 1;
+    }
+
+    // Whether firstInBlock can be used; until then, walk every slot
+    boolean hasBlocks()
+    {
+        return chained;
+    }
+
+    // The monsters in one block, in no particular order: start with
+    // firstInBlock and follow nextInBlock until -1. Blocks are cells
+    // shifted right by BLOCK_BITS.
+    int firstInBlock(int blockRow, int blockCol)
+    {
+        return blocks.get(RangedThreatIndex.key(blockRow, blockCol)) - 1;
+    }
+
+    int nextInBlock(int slot)
+    {
+        return next[slot];
+    }
+
+    private static long blockOf(int row, int col)
+    {
+        return RangedThreatIndex.key(row >> BLOCK_BITS, col >> BLOCK_BITS);
+    }
+
+    private void link(int slot)
+    {
+        long block = blockOf(rows[slot], cols[slot]);
+        int first = blocks.get(block) - 1;
+        next[slot] = first;
+        previous[slot] = -1;
+        if (first >= 0)
+        {
+            previous[first] = slot;
+        }
+        blocks.put(block, slot + 1);
+    }
+
+    private void unlink(int slot)
+    {
+        if (previous[slot] >= 0)
+        {
+            next[previous[slot]] = next[slot];
+        }
+        else
+        {
+            blocks.put(blockOf(rows[slot], cols[slot]), next[slot] + 1);
+        }
+        if (next[slot] >= 0)
+        {
+            previous[next[slot]] = previous[slot];
+        }
+    }
+
+    void add(int row, int col, byte type)
+    {
+        if (count == rows.length)
+        {
+            int capacity = count * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            types = Arrays.copyOf(types, capacity);
+            restUntil = Arrays.copyOf(restUntil, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+        }
+        rows[count] = row;
+        cols[count] = col;
+        types[count] = type;
+        restUntil[count] = READY;
+        if (chained)
+        {
+            link(count);
+        }
+        count++;
+        slots.put(RangedThreatIndex.key(row, col), count);
+        if (!chained && count == BLOCKS_FROM)
+        {
+            for (int slot = 0; slot < count; slot++)
+            {
+                link(slot);
+            }
+            chained = true;
+        }
+    }
+
+    // Removes the monster on a cell, if any
+    void remove(int row, int col)
+    {
+        int slot = slots.remove(RangedThreatIndex.key(row, col)) - 1;
+        if (slot < 0)
+        {
+            return;
+        }
+        if (chained)
+        {
+            unlink(slot);
+        }
+        int last = --count;
+        if (slot == last)
+        {
+            return;
+        }
+        // The last slot fills the hole
+        rows[slot] = rows[last];
+        cols[slot] = cols[last];
+        types[slot] = types[last];
+        restUntil[slot] = restUntil[last];
+        slots.put(RangedThreatIndex.key(rows[slot], cols[slot]), slot + 1);
+        if (chained)
+        {
+            // Repoint its block neighbours at it
+            next[slot] = next[last];
+            previous[slot] = previous[last];
+            if (previous[slot] >= 0)
+            {
+                next[previous[slot]] = slot;
+            }
+            else
+            {
+                blocks.put(blockOf(rows[slot], cols[slot]), slot + 1);
+            }
+            if (next[slot] >= 0)
+            {
+                previous[next[slot]] = slot;
+            }
+        }
+    }
+
+    void move(int slot, int row, int col, int restUntil)
+    {
+        slots.remove(RangedThreatIndex.key(rows[slot], cols[slot]));
+        boolean sameBlock = !chained || blockOf(rows[slot], cols[slot]) == blockOf(row, col);
+        if (!sameBlock)
+        {
+            unlink(slot);
+        }
+        rows[slot] = row;
+        cols[slot] = col;
+        this.restUntil[slot] = restUntil;
+        if (!sameBlock)
+        {
+            link(slot);
+        }
+        slots.put(RangedThreatIndex.key(row, col), slot + 1);
+    }
+
+    void setRestUntil(int row, int col, int restUntil)
+    {
+        int slot = slotAt(row, col);
+        if (slot >= 0)
+        {
+            this.restUntil[slot] = restUntil;
+        }
+    }
+
+    void clear()
+    {
+        count = 0;
+        slots.clear();
+        if (chained)
+        {
+            blocks.clear();
+            chained = false;
+        }
+    }
+}
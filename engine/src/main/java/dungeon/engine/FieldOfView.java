@@ -0,0 +1,315 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// What the player can see and has seen on one level, computed by recursive
+// shadowcasting over the walls. Visible cells live in a bitset window of
+// RADIUS around the player, one long per row; explored cells in 64x64-bit
+// chunks created as the player reaches them, so memory follows what was
+// explored rather than the map size. A move recasts only the window around
+// the new position and reports the cells whose visibility changed, so the
+// cost per move does not depend on the map size.
+//
+// The same caster answers line-of-sight questions between any two cells
+// (canSee), which is what ranged mutants shoot along.
+final class FieldOfView
+{
+    static final int RADIUS = 8;
+
+    private static final int WINDOW = 2 * RADIUS + 1;
+    private static final int CHUNK_BITS = 6;
+
+    // Octant transforms: map (dx, dy) of the first octant onto each of the eight
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    // Slopes of the left and right edges of each cell of the first octant,
+    // by distance and then column, so a cast does no division
+    private static final double[][] LEFT_SLOPES = new double[RADIUS + 1][];
+    private static final double[][] RIGHT_SLOPES = new double[RADIUS + 1][];
+
+    static
+    {
+        for (int j = 1; j <= RADIUS; j++)
+        {
+            LEFT_SLOPES[j] = new double[j + 1];
+            RIGHT_SLOPES[j] = new double[j + 1];
+            for (int dx = -j; dx <= 0; dx++)
+            {
+                LEFT_SLOPES[j][dx + j] = (dx - 0.5) / (-j + 0.5);
+                RIGHT_SLOPES[j][dx + j] = (dx + 0.5) / (-j - 0.5);
+            }
+        }
+    }
+
+    // Which cells stop sight; GameEngine answers for walls and unloaded chunks
+    @FunctionalInterface
+    interface Opacity
+    {
+        boolean blocksSight(int row, int col);
+    }
+
+    private final int rows;
+    private final int cols;
+    private final Opacity opacity;
+
+    private long[] visible = new long[WINDOW];   // bit RADIUS + col - originCol
+    private long[] previous = new long[WINDOW];
+    private int originRow = Integer.MIN_VALUE / 2;
+    private int originCol = Integer.MIN_VALUE / 2;
+    private int previousRow;
+    private int previousCol;
+
+    private final LongIntHashMap exploredIndex = new LongIntHashMap(); // chunk -> index + 1
+    private long[][] explored = new long[4][];  // one long per chunk row
+    private long[] exploredKeys = new long[4];
+    private int exploredChunks;
+    private long lastChunkKey = Long.MIN_VALUE; // the chunk light() wrote last
+    private long[] lastChunk;
+
+    // Scratch for one cast: either filling the window or testing one target
+    private int castRow;
+    private int castCol;
+    private boolean querying;
+    private int targetRow;
+    private int targetCol;
+    private boolean targetSeen;
+
+    FieldOfView(int rows, int cols, Opacity opacity)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.opacity = opacity;
+    }
+
+    // What the player remembers of a cell out of view: monsters move on, so
+    // only the floor they stood on
+    static Cell remembered(Cell cell)
+    {
+        return EntityStore.typeOf(cell) >= 0 ? CellFactory.EMPTY : cell;
+    }
+
+    boolean isVisible(int row, int col)
+    {
+        return inWindow(visible, originRow, originCol, row, col);
+    }
+
+    boolean isExplored(int row, int col)
+    {
+        int index = exploredIndex.get(RangedThreatIndex.key(row >> CHUNK_BITS, col >> CHUNK_BITS)) - 1;
+        return index >= 0 && (explored[index][row & 63] & 1L << (col & 63)) != 0;
+    }
+
+    // Recasts from the player's new position and reports every cell that
+    // came into or went out of view. Cells only ever become explored.
+    void update(int row, int col, CellPositionConsumer changed)
+    {
+        long[] swap = previous;
+        previous = visible;
+        visible = swap;
+        Arrays.fill(visible, 0L);
+        previousRow = originRow;
+        previousCol = originCol;
+        originRow = row;
+        originCol = col;
+
+        querying = false;
+        cast(row, col, RADIUS);
+
+        report(visible, originRow, originCol, previous, previousRow, previousCol, changed);
+        report(previous, previousRow, previousCol, visible, originRow, originCol, changed);
+    }
+
+    // Whether a shadowcast from one cell lights the other; cells further
+    // apart than RADIUS never see each other
+    boolean canSee(int fromRow, int fromCol, int toRow, int toCol)
+    {
+        int rowGap = toRow - fromRow;
+        int colGap = toCol - fromCol;
+        int reach = (int) Math.ceil(Math.sqrt(rowGap * rowGap + colGap * colGap));
+        if (reach > RADIUS)
+        {
+            return false;
+        }
+        querying = true;
+        targetRow = toRow;
+        targetCol = toCol;
+        // Neighbours always see each other
+        targetSeen = reach <= 1;
+        if (!targetSeen)
+        {
+            cast(fromRow, fromCol, reach);
+        }
+        boolean seen = targetSeen;
+        // Left set, the next update would stop casting after the origin
+        querying = false;
+        targetSeen = false;
+        return seen;
+    }
+
+    // Every explored cell, for repainting after this level is restored
+    void forEachExplored(CellPositionConsumer consumer)
+    {
+        for (int i = 0; i < exploredChunks; i++)
+        {
+            int chunkRow = (int) (exploredKeys[i] >> 32) << CHUNK_BITS;
+            int chunkCol = (int) exploredKeys[i] << CHUNK_BITS;
+            for (int r = 0; r < 64; r++)
+            {
+                for (long bits = explored[i][r]; bits != 0; bits &= bits - 1)
+                {
+                    consumer.accept(chunkRow + r, chunkCol + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        }
+    }
+
+    // Reports the cells set in one window but not in the other
+    private static void report(long[] window, int windowRow, int windowCol, long[] other, int otherRow, int otherCol,
+                               CellPositionConsumer changed)
+    {
+        int shift = windowCol - otherCol; // other's bit for window bit b is b + shift
+        for (int r = 0; r < WINDOW; r++)
+        {
+            int row = windowRow - RADIUS + r;
+            int otherR = row - otherRow + RADIUS;
+            long seen = 0;
+            if (otherR >= 0 && otherR < WINDOW && Math.abs(shift) < WINDOW)
+            {
+                seen = shift >= 0 ? other[otherR] >>> shift : other[otherR] << -shift;
+            }
+            for (long bits = window[r] & ~seen; bits != 0; bits &= bits - 1)
+            {
+                changed.accept(row, windowCol - RADIUS + Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    private static boolean inWindow(long[] window, int windowRow, int windowCol, int row, int col)
+    {
+        int r = row - windowRow + RADIUS;
+        int c = col - windowCol + RADIUS;
+        return r >= 0 && r < WINDOW && c >= 0 && c < WINDOW && (window[r] & 1L << c) != 0;
+    }
+
+    private void cast(int row, int col, int radius)
+    {
+        castRow = row;
+        castCol = col;
+        light(row, col);
+        for (int octant = 0; octant < 8 && !targetSeen; octant++)
+        {
+            if (querying && !holdsTarget(octant))
+            {
+                continue; // only the octants the target lies in can light it
+            }
+            // Rows past the map edge are all opaque and hide nothing further
+            int edge = YY[octant] != 0 ? (YY[octant] > 0 ? row : rows - 1 - row)
+                                       : (XY[octant] > 0 ? col : cols - 1 - col);
+            castOctant(1, 1.0, 0.0, radius, Math.min(radius, edge),
+                    XX[octant], XY[octant], YX[octant], YY[octant]);
+        }
+    }
+
+    private boolean holdsTarget(int octant)
+    {
+        int rowGap = targetRow - castRow;
+        int colGap = targetCol - castCol;
+        int dx = YX[octant] * rowGap + XX[octant] * colGap;
+        int dy = YY[octant] * rowGap + XY[octant] * colGap;
+        return dy < 0 && dx <= 0 && dx >= dy;
+    }
+
+    // One octant of recursive shadowcasting: scans rows outward from the
+    // origin between two slopes, recursing past each wall into the light
+    // it leaves
+    private void castOctant(int distance, double start, double end, int radius, int limit,
+                            int xx, int xy, int yx, int yy)
+    {
+        if (start < end)
+        {
+            return;
+        }
+        double newStart = 0.0;
+        for (int j = distance; j <= limit && !targetSeen; j++)
+        {
+            boolean blocked = false;
+            int dy = -j;
+            for (int dx = -j; dx <= 0; dx++)
+            {
+                int col = castCol + dx * xx + dy * xy;
+                int row = castRow + dx * yx + dy * yy;
+                double leftSlope = LEFT_SLOPES[j][dx + j];
+                double rightSlope = RIGHT_SLOPES[j][dx + j];
+                if (start < rightSlope)
+                {
+                    continue;
+                }
+                if (end > leftSlope)
+                {
+                    break;
+                }
+                boolean inside = row >= 0 && row < rows && col >= 0 && col < cols;
+                if (inside && dx * dx + dy * dy <= radius * radius)
+                {
+                    light(row, col);
+                }
+                boolean opaque = !inside || opacity.blocksSight(row, col);
+                if (blocked)
+                {
+                    if (opaque)
+                    {
+                        newStart = rightSlope;
+                        continue;
+                    }
+                    blocked = false;
+                    start = newStart;
+                }
+                else if (opaque && j < limit)
+                {
+                    blocked = true;
+                    castOctant(j + 1, start, leftSlope, radius, limit, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked)
+            {
+                break;
+            }
+        }
+    }
+
+    private void light(int row, int col)
+    {
+        if (querying)
+        {
+            targetSeen |= row == targetRow && col == targetCol;
+            return;
+        }
+        visible[row - originRow + RADIUS] |= 1L << (col - originCol + RADIUS);
+
+        long key = RangedThreatIndex.key(row >> CHUNK_BITS, col >> CHUNK_BITS);
+        if (key != lastChunkKey)
+        {
+            int index = exploredIndex.get(key) - 1;
+            lastChunk = index >= 0 ? explored[index] : explored[addChunk(key)];
+            lastChunkKey = key;
+        }
+        lastChunk[row & 63] |= 1L << (col & 63);
+    }
+
+    private int addChunk(long key)
+    {
+        if (exploredChunks == explored.length)
+        {
+            explored = Arrays.copyOf(explored, exploredChunks * 2);
+            exploredKeys = Arrays.copyOf(exploredKeys, exploredChunks * 2);
+        }
+        explored[exploredChunks] = new long[64];
+        exploredKeys[exploredChunks] = key;
+        exploredIndex.put(key, ++exploredChunks);
+        return exploredChunks - 1;
+    }
+}
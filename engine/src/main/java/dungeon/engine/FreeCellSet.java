@@ -0,0 +1,73 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Indexed set of free cell indices (row * cols + col) with O(1) add, remove
+// and uniform random removal. takeRandom is one step of a partial
+// Fisher-Yates shuffle, so choosing k cells costs O(k) however full the map
+// already is - unlike rejection sampling, which slows down as the map fills
+// and never finishes when fewer than k cells are left.
+final class FreeCellSet
+{
+    private final int[] cells;  // the first count entries are the members
+    private final int[] slotOf; // cell index -> position in cells, or -1
+    private int count;
+
+    FreeCellSet(int capacity)
+    {
+        cells = new int[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(slotOf, -1);
+    }
+
+    int size()
+    {
+        return count;
+    }
+
+    boolean contains(int cell)
+    {
+        return slotOf[cell] >= 0;
+    }
+
+    void add(int cell)
+    {
+        if (slotOf[cell] < 0)
+        {
+            cells[count] = cell;
+            slotOf[cell] = count++;
+        }
+    }
+
+    void remove(int cell)
+    {
+        int slot = slotOf[cell];
+        if (slot >= 0)
+        {
+            removeSlot(slot);
+        }
+    }
+
+    // Removes and returns a uniformly chosen member
+    int takeRandom(RandomGenerator random)
+    {
+        if (count == 0)
+        {
+            throw new IllegalStateException("No free cells left");
+        }
+        int slot = random.nextInt(count);
+        int cell = cells[slot];
+        removeSlot(slot);
+        return cell;
+    }
+
+    private void removeSlot(int slot)
+    {
+        int cell = cells[slot];
+        int last = cells[--count];
+        cells[slot] = last;
+        slotOf[last] = slot;
+        slotOf[cell] = -1;
+    }
+}
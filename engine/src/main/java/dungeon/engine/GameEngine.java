@@ -0,0 +1,959 @@
+package dungeon.engine;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GameEngine
+{
+    // Streamed maps keep the chunks within this distance of the player loaded
+    private static final int PREFETCH_RADIUS = LevelGenerator.CHUNK_SIZE / 4;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final long LEVEL_STREAM = 1;
+    private static final long COMBAT_STREAM = 2;
+
+    private DungeonMap map;
+    private GameState gameState;
+    private final int rows;
+    private final int cols;
+    private final int difficultyLevel;
+    private final LevelParameters levelParameters;
+    private GameState.Position lastExitPosition;
+    private boolean gameCompleted;
+    private boolean gameWon;
+
+    // Each level seed and combat roll is a pure function of the game seed
+    // and how many came before it (draw), so the same seed and moves replay
+    // the same game, and undo or loading rewinds by resetting two counters
+    private final long seed;
+    private int levelsGenerated; // level seeds drawn so far
+    private long combatRolls;    // combat rolls drawn so far
+    private final Replay replay;
+    private final RangedThreatIndex rangedThreats;
+    private final EntityStore monsters = new EntityStore(); // mirrors the mutants on the map
+    private FieldOfView view; // per level; kept with the level for undo
+    private boolean fogOfWar = true;
+    private final CellPositionConsumer fogChanged = this::fogChanged;
+    private final TurnScheduler scheduler = new TurnScheduler();
+    private boolean movingMonster; // the scheduler moves store entries itself
+    private final ChangeTracker changes = new ChangeTracker();
+    private final MazeGenerator mazeGenerator;
+    private final int cachedChunks; // 0 keeps the whole level in memory
+    private GameEventSink events = GameEventSink.none();
+    // Cells report through this so their events are counted too
+    private final GameEventSink publisher = (type, amount, state) -> publish(type, amount);
+    private EngineMetrics metrics = EngineMetrics.forNewEngine(); // null when not measured
+
+    // Published after every change for readers on other threads
+    private final AtomicReference<EngineSnapshot> snapshot = new AtomicReference<>();
+    private final MapSnapshot.Writer tiles = new MapSnapshot.Writer(); // in-memory maps only
+
+    private final UndoJournal history = new UndoJournal(UndoJournal.DEFAULT_DEPTH);
+    private boolean redoing;
+    private long snapshotVersion;
+    private long mapVersion;
+
+    private final TurnScheduler.World world = new TurnScheduler.World()
+    {
+        @Override
+        public boolean isOpen(int row, int col)
+        {
+            return map.inBounds(row, col) && map.peekCode(row, col) == CellCodes.EMPTY;
+        }
+
+        @Override
+        public void moveMonster(int fromRow, int fromCol, int toRow, int toCol)
+        {
+            Cell monster = map.getCell(fromRow, fromCol);
+            movingMonster = true;
+            setCell(fromRow, fromCol, CellFactory.EMPTY);
+            setCell(toRow, toCol, monster);
+            movingMonster = false;
+        }
+
+        @Override
+        public void fight(int row, int col)
+        {
+            map.getCell(row, col).interact(gameState, publisher);
+            setCell(row, col, CellFactory.EMPTY);
+        }
+    };
+
+    private final UndoJournal.Reverter reverter = new UndoJournal.Reverter()
+    {
+        @Override
+        public void writeCell(int row, int col, Cell cell)
+        {
+            setCell(row, col, cell);
+        }
+
+        @Override
+        public void restoreRest(int row, int col, int restUntil)
+        {
+            monsters.setRestUntil(row, col, restUntil);
+        }
+    };
+
+    public GameEngine(int size)
+    {
+        this(size, 1); // Use difficulty level 1 as default
+    }
+
+    public GameEngine(int size, int difficultyLevel)
+    {
+        this(size, difficultyLevel, new SplittableRandom().nextLong());
+    }
+
+    public GameEngine(int size, int difficultyLevel, long seed)
+    {
+        this(size, size, difficultyLevel, seed);
+    }
+
+    public GameEngine(int rows, int cols, int difficultyLevel, long seed)
+    {
+        this(rows, cols, difficultyLevel, seed, MazeGenerator.forSize(rows, cols),
+                LevelParameters.forDifficulty(difficultyLevel), 0);
+    }
+
+    public GameEngine(int size, int difficultyLevel, long seed, MazeGenerator mazeGenerator)
+    {
+        this(size, size, difficultyLevel, seed, mazeGenerator, LevelParameters.forDifficulty(difficultyLevel), 0);
+    }
+
+    // Levels with explicit densities instead of the difficulty's, for
+    // DifficultyCalibrator. Replays of such games do not reproduce.
+    GameEngine(int size, int difficultyLevel, long seed, LevelParameters levelParameters)
+    {
+        this(size, size, difficultyLevel, seed, MazeGenerator.forSize(size, size), levelParameters, 0);
+    }
+
+    private GameEngine(int rows, int cols, int difficultyLevel, long seed, MazeGenerator mazeGenerator,
+                       LevelParameters levelParameters, int cachedChunks)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.difficultyLevel = difficultyLevel;
+        this.levelParameters = levelParameters;
+        this.gameState = new GameState(difficultyLevel);
+        this.gameCompleted = false;
+        this.seed = seed;
+        this.replay = new Replay(seed, rows, cols, difficultyLevel);
+        this.rangedThreats = new RangedThreatIndex(rows, cols, this::canRangedMutantShoot);
+        this.mazeGenerator = mazeGenerator;
+        this.cachedChunks = cachedChunks;
+        initializeLevel(true); // Start first level
+        publishSnapshot();
+    }
+
+    // A game whose levels are streamed in chunks: at most cachedChunks
+    // chunks of 64x64 cells are held in memory at once, so size can be far
+    // larger than a full map would allow. Both engines lay levels out from
+    // the same seeds, but the in-memory one validates and replaces whole
+    // levels and this one single chunks (see LevelValidator), so they hold
+    // the same dungeon only while neither replaced anything - always, with
+    // the built-in mazes.
+    public static GameEngine streamed(int size, int difficultyLevel, long seed, int cachedChunks)
+    {
+        return new GameEngine(size, size, difficultyLevel, seed, MazeGenerator.forSize(size, size),
+                LevelParameters.forDifficulty(difficultyLevel), cachedChunks);
+    }
+
+    // Rebuilds a game read by SaveFile, including how far the random streams
+    // had advanced, so play continues exactly as if it had never been saved
+    GameEngine(long seed, GameState loadedState, ArrayMap loadedMap, GameState.Position lastExitPosition,
+               int levelsGenerated, long combatRolls, boolean gameCompleted, boolean gameWon, Replay replay)
+    {
+        this.rows = loadedMap.getRows();
+        this.cols = loadedMap.getCols();
+        this.difficultyLevel = loadedState.getDifficultyLevel();
+        this.levelParameters = LevelParameters.forDifficulty(difficultyLevel);
+        this.gameState = loadedState;
+        this.gameCompleted = gameCompleted;
+        this.gameWon = gameWon;
+        this.seed = seed;
+        this.levelsGenerated = levelsGenerated;
+        this.combatRolls = combatRolls;
+        this.replay = replay;
+        this.rangedThreats = new RangedThreatIndex(rows, cols, this::canRangedMutantShoot);
+        this.mazeGenerator = MazeGenerator.forSize(rows, cols);
+        this.cachedChunks = 0;
+        this.lastExitPosition = lastExitPosition;
+        this.map = loadedMap;
+        this.view = new FieldOfView(rows, cols, this::blocksSight);
+        registerRegion(0, 0, rows, cols);
+        tiles.reset(map, !fogOfWar);
+        updateView();
+        publishSnapshot();
+    }
+
+    // Note: the level is regenerated from a new seed, so the replay of a
+    // loaded game only covers the moves made after loading. SaveFile keeps
+    // the whole level instead.
+    public GameEngine(int size, GameState loadedState)
+    {
+        this.rows = size;
+        this.cols = size;
+        this.difficultyLevel = loadedState.getDifficultyLevel();
+        this.levelParameters = LevelParameters.forDifficulty(difficultyLevel);
+        this.gameState = loadedState;
+        this.gameCompleted = false;
+        this.seed = new SplittableRandom().nextLong();
+        this.replay = new Replay(seed, size, difficultyLevel);
+        this.rangedThreats = new RangedThreatIndex(size, size, this::canRangedMutantShoot);
+        this.mazeGenerator = MazeGenerator.forSize(size, size);
+        this.cachedChunks = 0;
+
+        // Initialize the level based on the loaded state
+        initializeLevel(loadedState.getCurrentLevel() == 1);
+
+        // Restore player position from loaded state
+        GameState.Position playerPos = loadedState.getPlayerPosition();
+        setCell(playerPos.getRow(), playerPos.getCol(), CellFactory.PLAYER);
+        updateView();
+        publishSnapshot();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Seed plus every accepted move so far
+    public Replay getReplay() {
+        return replay;
+    }
+
+    // Shared by every game in the process; loaded on first use, so batch runs never touch the file
+    public HighScoreManager getHighScoreManager() {
+        return HighScoreManager.getDefault();
+    }
+
+    // Add getter for game completion status
+    public boolean isGameCompleted() {
+        return gameCompleted;
+    }
+
+    // True only when the player escaped through the final exit
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    void initializeLevel(boolean isFirstLevel)
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+        if (map != null)
+        {
+            if (cachedChunks == 0 && history.isRecording())
+            {
+                // Rebuilding the store from the old map on undo loses rest timers
+                for (int slot = 0; slot < monsters.size(); slot++)
+                {
+                    if (monsters.isResting(slot, gameState.getMovesLeft()))
+                    {
+                        history.recordRest(monsters.row(slot), monsters.col(slot), monsters.restUntil(slot));
+                    }
+                }
+                history.levelReplaced(map, view); // kept for undo; an ArrayMap holds nothing to release
+            }
+            else
+            {
+                history.clear(); // a closed streamed level cannot be returned to
+                map.close();
+            }
+        }
+        rangedThreats.clear();
+        monsters.clear();
+        changes.markAll();
+        view = new FieldOfView(rows, cols, this::blocksSight);
+
+        long levelSeed = draw(seed, LEVEL_STREAM, levelsGenerated++);
+        LevelParameters parameters = levelParameters;
+        if (cachedChunks > 0)
+        {
+            LevelGenerator generator = new LevelGenerator(rows, cols, levelSeed, mazeGenerator, parameters);
+            // Chunks register their mutants as they are loaded
+            map = new ChunkedMap(generator, cachedChunks, new ChunkedMap.Listener()
+            {
+                @Override
+                public void chunkLoaded(int originRow, int originCol, int rows, int cols)
+                {
+                    registerRegion(originRow, originCol, rows, cols);
+                }
+
+                @Override
+                public void chunkEvicting(int originRow, int originCol, int rows, int cols)
+                {
+                    unregisterRegion(originRow, originCol, rows, cols);
+                }
+            });
+        }
+        else
+        {
+            map = LevelValidator.generatePlayable(rows, cols, levelSeed, mazeGenerator, parameters);
+            registerRegion(0, 0, rows, cols);
+            tiles.reset(map, !fogOfWar);
+        }
+
+        if (isFirstLevel)
+        {
+            setCell(0, 0, CellFactory.ENTRY);
+            setCell(rows - 1, cols - 1, CellFactory.EXIT);
+            setCell(0, 0, CellFactory.PLAYER);
+            gameState.getPlayerPosition().setRow(0);
+            gameState.getPlayerPosition().setCol(0);
+            lastExitPosition = new GameState.Position(rows - 1, cols - 1);
+        }
+        else
+        {
+            setCell(lastExitPosition.getRow(), lastExitPosition.getCol(), CellFactory.ENTRY);
+            setCell(0, 0, CellFactory.EXIT);
+            setCell(lastExitPosition.getRow(), lastExitPosition.getCol(), CellFactory.PLAYER);
+            gameState.getPlayerPosition().setRow(lastExitPosition.getRow());
+            gameState.getPlayerPosition().setCol(lastExitPosition.getCol());
+        }
+        GameState.Position playerPos = gameState.getPlayerPosition();
+        map.prefetch(playerPos.getRow(), playerPos.getCol(), PREFETCH_RADIUS);
+        updateView();
+        if (metrics != null)
+        {
+            metrics.recordLevelGenerated(System.nanoTime() - start);
+        }
+    }
+
+    // Adds the mutants of a newly loaded region to the entity store and the
+    // ranged ones to the threat index
+    private void registerRegion(int originRow, int originCol, int rows, int cols)
+    {
+        for (int row = originRow; row < originRow + rows; row++)
+        {
+            for (int col = originCol; col < originCol + cols; col++)
+            {
+                int code = map.peekCode(row, col);
+                int type = CellCodes.monsterType(code);
+                if (type >= 0)
+                {
+                    monsters.add(row, col, (byte) type);
+                }
+                if (code == CellCodes.RANGED_MUTANT)
+                {
+                    rangedThreats.addMutant(row, col);
+                }
+            }
+        }
+        // Mutants just outside the region could not see into it until now
+        for (int row = originRow; row < originRow + rows; row++)
+        {
+            rangedThreats.lineOfSightChanged(row, originCol);
+            rangedThreats.lineOfSightChanged(row, originCol + cols - 1);
+        }
+        for (int col = originCol; col < originCol + cols; col++)
+        {
+            rangedThreats.lineOfSightChanged(originRow, col);
+            rangedThreats.lineOfSightChanged(originRow + rows - 1, col);
+        }
+    }
+
+    private void unregisterRegion(int originRow, int originCol, int rows, int cols)
+    {
+        for (int row = originRow; row < originRow + rows; row++)
+        {
+            for (int col = originCol; col < originCol + cols; col++)
+            {
+                int code = map.peekCode(row, col);
+                if (CellCodes.monsterType(code) >= 0)
+                {
+                    monsters.remove(row, col);
+                }
+                if (code == CellCodes.RANGED_MUTANT)
+                {
+                    rangedThreats.removeMutant(row, col);
+                }
+            }
+        }
+    }
+
+    public boolean movePlayer(String direction)
+    {
+        Direction parsed = Direction.fromName(direction);
+        return parsed != null && movePlayer(parsed);
+    }
+
+    public boolean movePlayer(Direction direction)
+    {
+        int outcome = step(direction);
+        if (changedState(outcome))
+        {
+            publishSnapshot();
+        }
+        return (outcome & MoveOutcome.STATUS_MASK) == MoveOutcome.MOVED;
+    }
+
+    // Applies length encoded moves (Direction codes) in order and writes one
+    // MoveOutcome byte per move. Stops after the move that ends the game and
+    // returns the number of moves applied. Allocates nothing per move: the
+    // snapshot is published once, after the batch.
+    public int applyMoves(byte[] directions, int offset, int length, byte[] outcomes, int outcomesOffset)
+    {
+        Objects.checkFromIndexSize(offset, length, directions.length);
+        Objects.checkFromIndexSize(outcomesOffset, length, outcomes.length);
+        int applied = 0;
+        boolean changed = false;
+        while (applied < length)
+        {
+            int code = directions[offset + applied];
+            int outcome;
+            if (code < 0 || code >= DIRECTIONS.length)
+            {
+                outcome = MoveOutcome.BAD_DIRECTION;
+            }
+            else
+            {
+                outcome = step(DIRECTIONS[code]);
+            }
+            outcomes[outcomesOffset + applied++] = (byte) outcome;
+            changed |= changedState(outcome);
+            if (gameCompleted)
+            {
+                break;
+            }
+        }
+        if (changed)
+        {
+            publishSnapshot();
+        }
+        return applied;
+    }
+
+    // Blocked and rejected moves leave the game exactly as it was
+    private static boolean changedState(int outcome)
+    {
+        return outcome != MoveOutcome.BLOCKED && outcome != MoveOutcome.FINISHED
+                && outcome != MoveOutcome.BAD_DIRECTION;
+    }
+
+    // One move; returns MoveOutcome bits
+    private int step(Direction direction)
+    {
+        if (!gameCompleted)
+        {
+            history.begin(gameState, lastExitPosition, gameCompleted, gameWon, levelsGenerated, combatRolls);
+        }
+        EngineMetrics metrics = this.metrics;
+        int outcome;
+        if (metrics == null)
+        {
+            outcome = applyStep(direction);
+        }
+        else
+        {
+            long start = System.nanoTime();
+            outcome = applyStep(direction);
+            metrics.recordMove(outcome, System.nanoTime() - start);
+        }
+        if ((outcome & MoveOutcome.STATUS_MASK) == MoveOutcome.MOVED)
+        {
+            history.commit(direction, redoing);
+        }
+        else
+        {
+            history.abort();
+        }
+        return outcome;
+    }
+
+    // Takes back the last move, restoring the cells it wrote, the game
+    // state and the random draw counters. Returns false when there is nothing
+    // left to undo.
+    public boolean undo()
+    {
+        if (!history.canUndo())
+        {
+            return false;
+        }
+        int entry = history.lastEntry();
+        DungeonMap previousLevel = history.previousLevel(entry);
+        if (previousLevel != null)
+        {
+            map = previousLevel;
+            view = history.previousView(entry);
+            rangedThreats.clear();
+            monsters.clear();
+            registerRegion(0, 0, rows, cols);
+            tiles.reset(map, !fogOfWar);
+            if (fogOfWar)
+            {
+                view.forEachExplored(fogChanged);
+            }
+            changes.markAll();
+        }
+        history.revertCells(entry, reverter);
+
+        gameState.restore(history.level(entry), history.playerHP(entry), history.score(entry),
+                history.movesLeft(entry), history.playerRow(entry), history.playerCol(entry));
+        lastExitPosition = history.lastExitRow(entry) < 0 ? null
+                : new GameState.Position(history.lastExitRow(entry), history.lastExitCol(entry));
+        gameCompleted = history.gameCompleted(entry);
+        gameWon = history.gameWon(entry);
+        updateView(); // what was explored stays explored
+        levelsGenerated = history.levelsGenerated(entry);
+        combatRolls = history.combatRolls(entry);
+        replay.removeLast();
+        history.popToRedo(entry);
+        publishSnapshot();
+        return true;
+    }
+
+    // Makes the last undone move again. The draw counters were rewound,
+    // so it plays out exactly as it did the first time.
+    public boolean redo()
+    {
+        if (!history.canRedo())
+        {
+            return false;
+        }
+        redoing = true;
+        try
+        {
+            movePlayer(history.nextRedo());
+        }
+        finally
+        {
+            redoing = false;
+        }
+        history.consumeRedo();
+        return true;
+    }
+
+    public boolean canUndo()
+    {
+        return history.canUndo();
+    }
+
+    public boolean canRedo()
+    {
+        return history.canRedo();
+    }
+
+    // How many moves can be undone; 0 turns history off. Forgets the
+    // current history.
+    public void setUndoDepth(int depth)
+    {
+        history.setDepth(depth);
+    }
+
+    public int getUndoDepth()
+    {
+        return history.getDepth();
+    }
+
+    // With fog of war off the whole level is visible and moves skip
+    // recasting the player's view, e.g. for games nobody watches. Ranged
+    // mutants shoot by line of sight either way.
+    public void setFogOfWar(boolean enabled)
+    {
+        if (enabled == fogOfWar)
+        {
+            return;
+        }
+        fogOfWar = enabled;
+        if (cachedChunks == 0)
+        {
+            tiles.reset(map, !enabled);
+        }
+        if (enabled)
+        {
+            view.forEachExplored(fogChanged);
+            updateView();
+        }
+        changes.markAll();
+        publishSnapshot();
+    }
+
+    // The index-th value of one of the game's random streams: the SplitMix64
+    // finaliser over the seed, stream and index, so any draw costs the same
+    static long draw(long seed, long stream, long index)
+    {
+        long z = seed + stream * 0xC2B2AE3D27D4EB4FL + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int applyStep(Direction direction)
+    {
+        if (gameCompleted)
+        {
+            return MoveOutcome.FINISHED;
+        }
+
+        // Check for game over conditions first
+        if (gameState.isGameOver())
+        {
+            handleGameOver();
+            return MoveOutcome.FINISHED | MoveOutcome.GAME_ENDED;
+        }
+
+        GameState.Position playerPos = gameState.getPlayerPosition();
+        int row = playerPos.getRow();
+        int col = playerPos.getCol();
+        int newRow = row + direction.getRowDelta();
+        int newCol = col + direction.getColDelta();
+
+        if (!isValidMove(newRow, newCol))
+        {
+            return MoveOutcome.BLOCKED;
+        }
+
+        replay.record(direction);
+        int outcome = MoveOutcome.MOVED;
+        Cell nextCell = map.getCell(newRow, newCol);
+        boolean isExitReached = nextCell.getCode() == CellCodes.EXIT;
+        if (nextCell.interact(gameState, publisher))
+        {
+            outcome |= MoveOutcome.INTERACTED;
+            if (metrics != null)
+            {
+                metrics.recordInteraction(nextCell);
+            }
+        }
+
+        // Update positions
+        setCell(row, col, CellFactory.EMPTY);
+        setCell(newRow, newCol, CellFactory.PLAYER);
+
+        playerPos.setRow(newRow);
+        playerPos.setCol(newCol);
+        map.prefetch(newRow, newCol, PREFETCH_RADIUS);
+        updateView();
+
+        int hpBeforeAttacks = gameState.getPlayerHP();
+        if (!isExitReached)
+        {
+            scheduler.advance(monsters, newRow, newCol, gameState.getMovesLeft(), world);
+        }
+        handleRangedAttacks();
+        if (gameState.getPlayerHP() < hpBeforeAttacks)
+        {
+            outcome |= MoveOutcome.HIT;
+        }
+
+        // Check for game over after interactions and attacks
+        if (gameState.isGameOver())
+        {
+            handleGameOver();
+            return outcome | MoveOutcome.GAME_ENDED;
+        }
+
+        if (isExitReached)
+        {
+            handleLevelComplete();
+            outcome |= MoveOutcome.LEVEL_COMPLETE;
+            if (gameCompleted)
+            {
+                outcome |= MoveOutcome.GAME_ENDED;
+            }
+        }
+
+        gameState.decrementMoves();
+        return outcome;
+    }
+
+    private void handleGameOver()
+    {
+        gameCompleted = true;
+        publish(gameState.getPlayerHP() <= 0 ? GameEventType.OUT_OF_HEALTH : GameEventType.OUT_OF_MOVES, 0);
+    }
+
+    private void handleLevelComplete()
+    {
+        if (gameState.getCurrentLevel() == 1)
+        {
+            GameState.Position exitPos = new GameState.Position(
+                    gameState.getPlayerPosition().getRow(),
+                    gameState.getPlayerPosition().getCol()
+            );
+
+            // Advance to level 2
+            gameState.advanceLevel();
+
+            // Initialize new level with the stored position
+            lastExitPosition = exitPos;
+            initializeLevel(false);
+
+            publish(GameEventType.LEVEL_COMPLETE, 0);
+        }
+        else if (gameState.getCurrentLevel() == 2)
+        {
+            gameCompleted = true;
+            gameWon = true;
+            publish(GameEventType.ESCAPED, 0);
+        }
+    }
+
+    private boolean isValidMove(int row, int col)
+    {
+        return map.inBounds(row, col) && !CellCodes.blocksMovement(map.getCode(row, col));
+    }
+
+    // Where game events go; by default they are discarded
+    public void setEventSink(GameEventSink events)
+    {
+        this.events = Objects.requireNonNull(events);
+    }
+
+    public GameEventSink getEventSink()
+    {
+        return events;
+    }
+
+    // null stops measuring this engine
+    public void setMetrics(EngineMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    public EngineMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    private void publish(GameEventType type, int amount)
+    {
+        if (metrics != null)
+        {
+            metrics.recordEvent(type);
+        }
+        events.onEvent(type, amount, gameState);
+    }
+
+    // Mutable and owned by the thread making moves; other threads should
+    // use getSnapshot
+    public GameState getGameState()
+    {
+        return gameState;
+    }
+
+    // The state after the latest move. Lock-free and safe from any thread.
+    public EngineSnapshot getSnapshot()
+    {
+        return snapshot.getAcquire();
+    }
+
+    // In-memory levels share all unchanged chunks with the previous
+    // snapshot, so this costs little more than the move itself
+    private void publishSnapshot()
+    {
+        GameState.Position player = gameState.getPlayerPosition();
+        snapshot.setRelease(new EngineSnapshot(++snapshotVersion, rows, cols, difficultyLevel,
+                gameState.getCurrentLevel(), gameState.getPlayerHP(), gameState.getScore(),
+                gameState.getMovesLeft(), player.getRow(), player.getCol(),
+                gameCompleted, gameWon, mapVersion, cachedChunks == 0 ? tiles.snapshot() : null));
+    }
+
+    public DungeonMap getMap()
+    {
+        return map;
+    }
+
+    public Cell getCell(int row, int col)
+    {
+        return map.getCell(row, col);
+    }
+
+    // Reports each cell written since the previous call. Returns false
+    // instead when the whole map was replaced (a new level) and callers
+    // should redraw everything.
+    public boolean drainChangedCells(CellPositionConsumer consumer)
+    {
+        return changes.drain(consumer);
+    }
+
+    // Fog of war: cells in the player's line of sight are visible; cells
+    // seen before stay explored and are drawn as remembered
+    public boolean isVisible(int row, int col)
+    {
+        return !fogOfWar || view.isVisible(row, col);
+    }
+
+    public boolean isExplored(int row, int col)
+    {
+        return !fogOfWar || view.isExplored(row, col);
+    }
+
+    // What the player knows of a cell: null if never seen, the cell itself
+    // while in view, and what was left there when it was last seen otherwise
+    public Cell getRevealedCell(int row, int col)
+    {
+        if (!isExplored(row, col))
+        {
+            return null;
+        }
+        Cell cell = map.getCell(row, col);
+        return isVisible(row, col) ? cell : FieldOfView.remembered(cell);
+    }
+
+    // Recasts from the player; cells entering or leaving view are redrawn
+    private void updateView()
+    {
+        if (!fogOfWar)
+        {
+            return;
+        }
+        GameState.Position player = gameState.getPlayerPosition();
+        view.update(player.getRow(), player.getCol(), fogChanged);
+    }
+
+    private void fogChanged(int row, int col)
+    {
+        changes.mark(row, col);
+        if (cachedChunks == 0)
+        {
+            // Every cell reported has been seen at some point
+            tiles.setFog(row, col, view.isVisible(row, col), true);
+        }
+    }
+
+    // Every map write after the initial fill goes through here so the
+    // entity store, ranged threat index and change tracking stay in step
+    // with the map
+    private void setCell(int row, int col, Cell cell)
+    {
+        Cell old = map.getCell(row, col);
+        if (history.isRecording())
+        {
+            // Before the cell, so undo puts the monster back before its timer
+            int slot = movingMonster ? -1 : monsters.slotAt(row, col);
+            if (slot >= 0 && monsters.isResting(slot, gameState.getMovesLeft()))
+            {
+                history.recordRest(row, col, monsters.restUntil(slot));
+            }
+            history.recordCell(row, col, old);
+        }
+        map.setCell(row, col, cell);
+        changes.mark(row, col);
+        mapVersion++;
+        if (cachedChunks == 0)
+        {
+            tiles.set(row, col, cell);
+        }
+
+        int oldCode = old.getCode();
+        int code = cell.getCode();
+        if (!movingMonster)
+        {
+            if (CellCodes.monsterType(oldCode) >= 0)
+            {
+                monsters.remove(row, col);
+            }
+            int type = CellCodes.monsterType(code);
+            if (type >= 0)
+            {
+                monsters.add(row, col, (byte) type);
+            }
+        }
+        if (oldCode == CellCodes.RANGED_MUTANT)
+        {
+            rangedThreats.removeMutant(row, col);
+        }
+        if (CellCodes.blocksSight(oldCode) != CellCodes.blocksSight(code))
+        {
+            rangedThreats.lineOfSightChanged(row, col);
+        }
+        if (code == CellCodes.RANGED_MUTANT)
+        {
+            rangedThreats.addMutant(row, col);
+        }
+    }
+
+    // The side of a square map; see getRows and getCols
+    public int getSize()
+    {
+        return rows;
+    }
+
+    public int getRows()
+    {
+        return rows;
+    }
+
+    public int getCols()
+    {
+        return cols;
+    }
+
+    boolean isStreamed()
+    {
+        return cachedChunks > 0;
+    }
+
+    int getLevelsGenerated()
+    {
+        return levelsGenerated;
+    }
+
+    long getCombatRolls()
+    {
+        return combatRolls;
+    }
+
+    EntityStore getMonsters()
+    {
+        return monsters;
+    }
+
+    GameState.Position getLastExitPosition()
+    {
+        return lastExitPosition;
+    }
+
+    public static void main(String[] args)
+    {
+        GameEngine engine = new GameEngine(10);
+        TextUI ui = new TextUI(engine);
+        ui.start();
+    }
+
+    boolean canRangedMutantShoot(int mutantRow, int mutantCol, int playerRow, int playerCol)
+    {
+        int distance = Math.abs(mutantRow - playerRow) + Math.abs(mutantCol - playerCol);
+        if (distance > 2 || distance == 0) return false;
+        if (mutantRow != playerRow && mutantCol != playerCol) return false;
+
+        // A mutant shoots what it could see from where it stands
+        return view.canSee(mutantRow, mutantCol, playerRow, playerCol);
+    }
+
+    // Walls block sight and shots. Cells of a streamed map that are not
+    // loaded count as blocked for now; shots are re-evaluated when their
+    // chunk loads.
+    private boolean blocksSight(int row, int col)
+    {
+        int code = map.peekCode(row, col);
+        return code < 0 || CellCodes.blocksSight(code);
+    }
+
+    // How many ranged mutants have a clear shot at this tile
+    int rangedThreatAt(int row, int col)
+    {
+        return rangedThreats.threatAt(row, col);
+    }
+
+    void handleRangedAttacks()
+    {
+        GameState.Position playerPos = gameState.getPlayerPosition();
+
+        // The threat index already knows how many mutants have a clear shot
+        int shooters = rangedThreats.threatAt(playerPos.getRow(), playerPos.getCol());
+        for (int i = 0; i < shooters; i++)
+        {
+            if (draw(seed, COMBAT_STREAM, combatRolls++) < 0)
+            {
+                gameState.changeHP(-2);
+                publish(GameEventType.RANGED_HIT, 2);
+            }
+            else
+            {
+                publish(GameEventType.RANGED_MISS, 0);
+            }
+        }
+    }
+}
\ No newline at end of file
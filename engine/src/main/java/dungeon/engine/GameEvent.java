@@ -0,0 +1,11 @@
+package dungeon.engine;
+
+// A game event as read back from a RingBufferEventSink, with the player's
+// score, HP and level as they were when it happened
+public record GameEvent(GameEventType type, int amount, int score, int playerHP, int level)
+{
+    public String message()
+    {
+        return type.describe(amount, score, level);
+    }
+}
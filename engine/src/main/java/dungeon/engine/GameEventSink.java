@@ -0,0 +1,16 @@
+package dungeon.engine;
+
+// Receives events as the engine produces them, on the thread making the
+// move. Implementations should return quickly and must not call back into
+// the engine.
+@FunctionalInterface
+public interface GameEventSink
+{
+    void onEvent(GameEventType type, int amount, GameState state);
+
+    // For simulations and tests: events cost one interface call and nothing else
+    static GameEventSink none()
+    {
+        return (type, amount, state) -> { };
+    }
+}
@@ -0,0 +1,49 @@
+package dungeon.engine;
+
+// Everything the engine reports to the player. The amount is the points,
+// HP or damage involved where the event has one.
+public enum GameEventType
+{
+    GOLD_FOUND,
+    HEALTH_POTION,
+    TRAP,
+    MELEE_MUTANT_DEFEATED,
+    RANGED_MUTANT_DEFEATED,
+    RANGED_HIT,
+    RANGED_MISS,
+    LEVEL_COMPLETE,
+    OUT_OF_HEALTH,
+    OUT_OF_MOVES,
+    ESCAPED;
+
+    private static final GameEventType[] BY_CODE = values();
+
+    static GameEventType fromCode(int code)
+    {
+        return BY_CODE[code];
+    }
+
+    // The text the console game has always printed for this event
+    public String describe(int amount, int score, int level)
+    {
+        return switch (this)
+        {
+            case GOLD_FOUND -> "You found gold! +" + amount + " points!";
+            case HEALTH_POTION -> "You found a health potion! Healed for " + amount + " HP!";
+            case TRAP -> "Ouch! You stepped on a trap!";
+            case MELEE_MUTANT_DEFEATED -> "You defeated a melee mutant! Took 2 damage but gained 2 points!";
+            case RANGED_MUTANT_DEFEATED -> "You defeated a ranged mutant! Gained 2 points!";
+            case RANGED_HIT -> "A ranged mutant hit you for " + amount + " damage!";
+            case RANGED_MISS -> "A ranged mutant missed their shot!";
+            case LEVEL_COMPLETE -> "\n=== LEVEL " + level + " ===\nYou found the exit! Moving to next level...\n";
+            case OUT_OF_HEALTH, OUT_OF_MOVES -> "\n=========================\n"
+                    + "      GAME OVER!\n"
+                    + "=========================\n"
+                    + (this == OUT_OF_HEALTH ? "You ran out of health!\n" : "You ran out of moves!\n")
+                    + "Final Score: " + score + "\n"
+                    + "Level Reached: " + level + "\n"
+                    + "=========================\n";
+            case ESCAPED -> "You escaped the dungeon!";
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package dungeon.engine;
+
+// Outcome of one simulated game, as reported by SimulationRunner.
+// new GameEngine(size, difficulty, seed) recreates the game's levels.
+public record GameResult(long gameIndex, long seed, int score, int playerHP, int movesLeft,
+                         int levelReached, Outcome outcome)
+{
+    public enum Outcome
+    {
+        ESCAPED,      // left through the level 2 exit
+        KILLED,       // HP reached 0
+        OUT_OF_MOVES, // move budget used up
+        STALLED       // policy kept choosing blocked moves
+    }
+}
@@ -0,0 +1,176 @@
+package dungeon.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hosts independent games over TCP, one virtual thread and one GameEngine
+// per connection, speaking the TextUI command vocabulary line by line.
+// Sessions are kept in a registry and closed once idle for too long.
+public class GameServer implements Closeable
+{
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private final ServerSocket serverSocket;
+    private final int size;
+    private final int difficultyLevel;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong();
+    private final ExecutorService sessionThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GameServer(InetSocketAddress address, int size, int difficultyLevel,
+                      Duration idleTimeout, int maxSessions) throws IOException
+    {
+        this.size = size;
+        this.difficultyLevel = difficultyLevel;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxSessions = maxSessions;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address, 1024);
+    }
+
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getSessionCount()
+    {
+        return sessions.size();
+    }
+
+    public void start()
+    {
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(10), idleTimeoutNanos / 4);
+        reaper.scheduleAtFixedRate(this::closeIdleSessions, period, period, TimeUnit.NANOSECONDS);
+        Thread.ofVirtual().name("game-server-accept").start(this::acceptLoop);
+    }
+
+    private void acceptLoop()
+    {
+        long backoffMillis = 0;
+        while (!serverSocket.isClosed())
+        {
+            Socket socket;
+            try
+            {
+                socket = serverSocket.accept();
+                backoffMillis = 0;
+            }
+            catch (IOException e)
+            {
+                if (serverSocket.isClosed())
+                {
+                    break;
+                }
+                // e.g. out of file descriptors: retrying at once would only spin
+                backoffMillis = Math.min(MAX_ACCEPT_BACKOFF_MILLIS,
+                        Math.max(MIN_ACCEPT_BACKOFF_MILLIS, backoffMillis * 2));
+                System.err.println("Accept failed, retrying in " + backoffMillis + " ms: " + e.getMessage());
+                try
+                {
+                    Thread.sleep(backoffMillis);
+                }
+                catch (InterruptedException interrupted)
+                {
+                    return;
+                }
+                continue;
+            }
+            if (sessions.size() >= maxSessions)
+            {
+                reject(socket);
+                continue;
+            }
+            GameSession session = new GameSession(nextSessionId.incrementAndGet(), socket,
+                    () -> new GameEngine(size, difficultyLevel, ThreadLocalRandom.current().nextLong()));
+            sessions.put(session.getId(), session);
+            sessionThreads.execute(() -> {
+                try
+                {
+                    session.run();
+                }
+                finally
+                {
+                    sessions.remove(session.getId());
+                }
+            });
+        }
+    }
+
+    private static void reject(Socket socket)
+    {
+        try (socket; OutputStream out = socket.getOutputStream())
+        {
+            out.write("Server is full, try again later\n".getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            // The client is gone either way
+        }
+    }
+
+    private void closeIdleSessions()
+    {
+        long now = System.nanoTime();
+        for (GameSession session : sessions.values())
+        {
+            if (session.idleNanos(now) > idleTimeoutNanos)
+            {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        reaper.shutdownNow();
+        sessions.values().forEach(GameSession::close);
+        sessionThreads.shutdown();
+    }
+
+    // Usage: GameServer [port] [size] [difficulty] [idle timeout seconds]
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long idleSeconds = args.length > 3 ? Long.parseLong(args[3]) : 300;
+
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                size, difficulty, Duration.ofSeconds(idleSeconds), 10_000);
+        server.start();
+        System.out.println("MiniDungeon server listening on port " + server.getPort());
+        if (Boolean.getBoolean(EngineMetrics.ENABLE_PROPERTY))
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> System.out.print(EngineMetrics.shared().snapshot().format())));
+        }
+        Thread.currentThread().join(); // serve until the process is stopped
+    }
+}
@@ -0,0 +1,96 @@
+package dungeon.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+// One connected player: a TextUI driving its own engine over the socket.
+// Runs on its own virtual thread, so blocking reads cost no platform thread.
+// The engine is built there too, so level generation never holds up the
+// server's accept loop.
+final class GameSession implements Runnable
+{
+    private final long id;
+    private final Socket socket;
+    private final Supplier<GameEngine> newGame;
+    private volatile long lastActive = System.nanoTime();
+
+    GameSession(long id, Socket socket, Supplier<GameEngine> newGame)
+    {
+        this.id = id;
+        this.socket = socket;
+        this.newGame = newGame;
+    }
+
+    long getId()
+    {
+        return id;
+    }
+
+    long idleNanos(long now)
+    {
+        return now - lastActive;
+    }
+
+    @Override
+    public void run()
+    {
+        try (socket)
+        {
+            GameEngine engine;
+            try
+            {
+                engine = newGame.get();
+            }
+            catch (RuntimeException e)
+            {
+                System.err.println("Could not start a game for session " + id + ": " + e);
+                return; // closes the socket
+            }
+            socket.setTcpNoDelay(true);
+            // Any input from the client counts as activity
+            InputStream in = new FilterInputStream(socket.getInputStream())
+            {
+                @Override
+                public int read() throws IOException
+                {
+                    lastActive = System.nanoTime();
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException
+                {
+                    int n = super.read(b, off, len);
+                    lastActive = System.nanoTime();
+                    return n;
+                }
+            };
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()),
+                    false, StandardCharsets.UTF_8);
+            new TextUI(engine, in, out).start();
+        }
+        catch (IOException e)
+        {
+            // The client went away; nothing left to clean up
+        }
+    }
+
+    // Unblocks the session thread, which then ends the game
+    void close()
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException e)
+        {
+            // Already closed
+        }
+    }
+}
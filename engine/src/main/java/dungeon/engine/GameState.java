@@ -26,6 +26,17 @@ public class GameState implements Serializable {
         this.playerPosition = new Position(0, 0);
     }
 
+    // Restores a state read back from a save file
+    GameState(int difficultyLevel, int currentLevel, int playerHP, int score, int movesLeft,
+              Position playerPosition) {
+        this.difficultyLevel = difficultyLevel;
+        this.currentLevel = currentLevel;
+        this.playerHP = playerHP;
+        this.score = score;
+        this.movesLeft = movesLeft;
+        this.playerPosition = playerPosition;
+    }
+
     // Required getter methods
     public int getCurrentLevel() { return currentLevel; }
     public int getPlayerHP() { return playerHP; }
@@ -51,6 +62,16 @@ public class GameState implements Serializable {
         currentLevel++;
     }
 
+    // Puts back an earlier state, for GameEngine.undo
+    void restore(int currentLevel, int playerHP, int score, int movesLeft, int row, int col) {
+        this.currentLevel = currentLevel;
+        this.playerHP = playerHP;
+        this.score = score;
+        this.movesLeft = movesLeft;
+        playerPosition.setRow(row);
+        playerPosition.setCol(col);
+    }
+
     public boolean isGameOver() {
         return playerHP <= 0 || movesLeft <= 0;
     }
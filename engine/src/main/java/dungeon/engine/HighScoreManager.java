@@ -0,0 +1,479 @@
+package dungeon.engine;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// High scores live in an append-only log shared by every process on the
+// machine. Only the best few per difficulty are kept in memory, as min-heaps
+// rebuilt from the log on startup. addScore never touches the disk: new
+// entries are appended in batches by a background flush, which also picks
+// up entries other processes appended and rewrites the log once most of it
+// is scores that no longer make any table.
+//
+// Writers serialize on a lock file beside the log. Compaction replaces the
+// log with a new generation, which tells other processes to reload it.
+public class HighScoreManager
+{
+    private static final String HIGH_SCORES_FILE = "high_scores.log";
+    private static final String LEGACY_FILE = "high_scores.dat";
+    private static final int MAX_HIGH_SCORES = 5;
+
+    private static final int MAGIC = 0x4D444853; // "MDHS"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 8;
+    private static final int MAX_NAME_BYTES = 256;
+    private static final long FLUSH_DELAY_MILLIS = 500;
+    // Compact once the log holds this many times more records than are kept
+    private static final int COMPACT_FACTOR = 4;
+    private static final int COMPACT_MIN_RECORDS = 256;
+
+    private static final Map<Path, HighScoreManager> OPEN = new HashMap<>();
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "high-score-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static
+    {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            synchronized (OPEN)
+            {
+                OPEN.values().forEach(HighScoreManager::flush);
+            }
+        }));
+    }
+
+    private final Path logFile;
+    private final Path lockFile;
+    private final Object ioLock = new Object();
+
+    // Guarded by this
+    private final Map<Integer, PriorityQueue<ScoreEntry>> topScores = new HashMap<>();
+    private final List<ScoreEntry> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long sequence;
+
+    // Guarded by ioLock
+    private long generation = -1; // forces a full read on first sync
+    private long logEnd;
+    private long recordsInLog;
+
+    public static class ScoreEntry implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private final String playerName;
+        private final int score;
+        private final String date;
+        private final int difficultyLevel; // 0 for scores from before difficulties were tracked
+        private transient long sequence;
+
+        public ScoreEntry(String playerName, int score)
+        {
+            this(playerName, score, 0, LocalDate.now().toEpochDay());
+        }
+
+        ScoreEntry(String playerName, int score, int difficultyLevel, long epochDay)
+        {
+            this.playerName = playerName;
+            this.score = score;
+            this.difficultyLevel = difficultyLevel;
+            this.date = LocalDate.ofEpochDay(epochDay).toString();
+        }
+
+        public String getPlayerName() { return playerName; }
+        public int getScore() { return score; }
+        public String getDate() { return date; }
+        public int getDifficultyLevel() { return difficultyLevel; }
+    }
+
+    // Best first; equal scores keep the earlier entry ahead
+    private static final Comparator<ScoreEntry> RANKING = Comparator
+            .comparingInt((ScoreEntry e) -> -e.score)
+            .thenComparingLong(e -> e.sequence);
+
+    public static HighScoreManager getDefault()
+    {
+        return open(Path.of(HIGH_SCORES_FILE));
+    }
+
+    // One manager per log file per process, so sessions share its heaps and batches
+    public static HighScoreManager open(Path logFile)
+    {
+        synchronized (OPEN)
+        {
+            return OPEN.computeIfAbsent(logFile.toAbsolutePath().normalize(), HighScoreManager::new);
+        }
+    }
+
+    HighScoreManager(Path logFile)
+    {
+        this.logFile = logFile;
+        this.lockFile = logFile.resolveSibling(logFile.getFileName() + ".lock");
+        if (Files.notExists(logFile))
+        {
+            importLegacyScores(logFile.resolveSibling(LEGACY_FILE));
+        }
+        flush();
+    }
+
+    public synchronized boolean isHighScore(int score)
+    {
+        List<ScoreEntry> overall = getHighScores();
+        return overall.size() < MAX_HIGH_SCORES || score > overall.get(overall.size() - 1).getScore();
+    }
+
+    public synchronized boolean isHighScore(int score, int difficultyLevel)
+    {
+        PriorityQueue<ScoreEntry> heap = topScores.get(difficultyLevel);
+        return heap == null || heap.size() < MAX_HIGH_SCORES || score > heap.peek().getScore();
+    }
+
+    public void addScore(String playerName, int score)
+    {
+        addScore(playerName, score, 0);
+    }
+
+    // Returns immediately; the entry reaches the log with the next batch
+    public synchronized void addScore(String playerName, int score, int difficultyLevel)
+    {
+        ScoreEntry entry = new ScoreEntry(playerName, score, difficultyLevel, LocalDate.now().toEpochDay());
+        offer(entry);
+        pending.add(entry);
+        if (scheduledFlush == null)
+        {
+            scheduledFlush = FLUSHER.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Best scores over all difficulties
+    public synchronized List<ScoreEntry> getHighScores()
+    {
+        List<ScoreEntry> all = new ArrayList<>();
+        for (PriorityQueue<ScoreEntry> heap : topScores.values())
+        {
+            all.addAll(heap);
+        }
+        all.sort(RANKING);
+        return new ArrayList<>(all.subList(0, Math.min(MAX_HIGH_SCORES, all.size())));
+    }
+
+    public synchronized List<ScoreEntry> getHighScores(int difficultyLevel)
+    {
+        PriorityQueue<ScoreEntry> heap = topScores.get(difficultyLevel);
+        List<ScoreEntry> scores = heap == null ? new ArrayList<>() : new ArrayList<>(heap);
+        scores.sort(RANKING);
+        return scores;
+    }
+
+    // Writes pending scores and reads what other processes appended. Errors
+    // are reported and the batch is retried on the next flush.
+    public void flush()
+    {
+        synchronized (ioLock)
+        {
+            List<ScoreEntry> batch;
+            synchronized (this)
+            {
+                // A direct flush covers the queued one too
+                if (scheduledFlush != null)
+                {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            try
+            {
+                sync(batch);
+            }
+            catch (IOException e)
+            {
+                System.err.println("Error saving high scores: " + e.getMessage());
+                synchronized (this)
+                {
+                    pending.addAll(0, batch);
+                }
+            }
+        }
+    }
+
+    synchronized boolean isFlushScheduled()
+    {
+        return scheduledFlush != null;
+    }
+
+    private synchronized void offer(ScoreEntry entry)
+    {
+        entry.sequence = sequence++;
+        PriorityQueue<ScoreEntry> heap = topScores.computeIfAbsent(entry.difficultyLevel,
+                d -> new PriorityQueue<>(RANKING.reversed()));
+        heap.add(entry);
+        if (heap.size() > MAX_HIGH_SCORES)
+        {
+            heap.poll();
+        }
+    }
+
+    private void sync(List<ScoreEntry> batch) throws IOException
+    {
+        boolean compact;
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+        {
+            FileLock lock = lockChannel.lock();
+            try
+            {
+                try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE))
+                {
+                    if (log.size() < HEADER_BYTES)
+                    {
+                        log.truncate(0);
+                        log.write(header(0), 0);
+                    }
+                    long fileGeneration = readHeader(log);
+                    if (fileGeneration != generation)
+                    {
+                        // First read, or another process compacted: start over from the new log
+                        reload(log, fileGeneration, batch);
+                    }
+                    else
+                    {
+                        readRecords(log, logEnd, this::offer);
+                    }
+
+                    ByteBuffer records = encode(batch);
+                    long position = logEnd;
+                    while (records.hasRemaining())
+                    {
+                        position += log.write(records, position);
+                    }
+                    if (!batch.isEmpty())
+                    {
+                        log.force(false);
+                    }
+                    logEnd = position;
+                    recordsInLog += batch.size();
+                }
+                compact = recordsInLog > COMPACT_MIN_RECORDS
+                        && recordsInLog > (long) COMPACT_FACTOR * retainedCount();
+                if (compact)
+                {
+                    compact();
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+    }
+
+    private void reload(FileChannel log, long fileGeneration, List<ScoreEntry> batch) throws IOException
+    {
+        List<ScoreEntry> fromLog = new ArrayList<>();
+        logEnd = HEADER_BYTES;
+        recordsInLog = 0;
+        readRecords(log, HEADER_BYTES, fromLog::add);
+        generation = fileGeneration;
+        synchronized (this)
+        {
+            // Entries not yet written stay in the tables
+            topScores.clear();
+            sequence = 0;
+            fromLog.forEach(this::offer);
+            batch.forEach(this::offer);
+            pending.forEach(this::offer);
+        }
+    }
+
+    // Reads records from the given offset up to the end of the log, cutting
+    // off a torn record left by a crash mid-append
+    private void readRecords(FileChannel log, long from, Consumer<ScoreEntry> sink)
+            throws IOException
+    {
+        long size = log.size();
+        if (size <= from)
+        {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - from));
+        readFully(log, buffer, from);
+
+        CRC32 crc = new CRC32();
+        int good = 0;
+        while (buffer.remaining() >= 2)
+        {
+            int start = buffer.position();
+            int nameLength = buffer.getShort() & 0xFFFF;
+            if (nameLength > MAX_NAME_BYTES || buffer.remaining() < nameLength + 13)
+            {
+                break;
+            }
+            byte[] name = new byte[nameLength];
+            buffer.get(name);
+            int score = buffer.getInt();
+            int difficultyLevel = buffer.get();
+            int epochDay = buffer.getInt();
+            crc.reset();
+            crc.update(buffer.array(), start, buffer.position() - start);
+            if ((int) crc.getValue() != buffer.getInt())
+            {
+                break;
+            }
+            sink.accept(new ScoreEntry(new String(name, StandardCharsets.UTF_8), score, difficultyLevel, epochDay));
+            recordsInLog++;
+            good = buffer.position();
+        }
+        logEnd = from + good;
+        if (logEnd < size)
+        {
+            log.truncate(logEnd);
+        }
+    }
+
+    // Replaces the log with just the entries still in a table
+    private void compact() throws IOException
+    {
+        List<ScoreEntry> kept = new ArrayList<>();
+        synchronized (this)
+        {
+            Set<ScoreEntry> unwritten = Collections.newSetFromMap(new IdentityHashMap<>());
+            unwritten.addAll(pending);
+            for (PriorityQueue<ScoreEntry> heap : topScores.values())
+            {
+                for (ScoreEntry entry : heap)
+                {
+                    if (!unwritten.contains(entry))
+                    {
+                        kept.add(entry);
+                    }
+                }
+            }
+        }
+        kept.sort(Comparator.comparingLong(e -> e.sequence));
+
+        Path temp = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        ByteBuffer records = encode(kept);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            out.write(header(generation + 1));
+            while (records.hasRemaining())
+            {
+                out.write(records);
+            }
+            out.force(true);
+            logEnd = out.size();
+        }
+        Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation++;
+        recordsInLog = kept.size();
+    }
+
+    private synchronized int retainedCount()
+    {
+        int count = 0;
+        for (PriorityQueue<ScoreEntry> heap : topScores.values())
+        {
+            count += heap.size();
+        }
+        return count;
+    }
+
+    private static ByteBuffer header(long generation)
+    {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION).putLong(generation).flip();
+    }
+
+    private static long readHeader(FileChannel log) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(log, header, 0);
+        if (header.getInt() != MAGIC)
+        {
+            throw new IOException("Not a high score log");
+        }
+        short version = header.getShort();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported high score log version " + version);
+        }
+        return header.getLong();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new EOFException("High score log ended early");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static ByteBuffer encode(List<ScoreEntry> entries)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        for (ScoreEntry entry : entries)
+        {
+            byte[] name = entry.playerName.getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES)
+            {
+                name = Arrays.copyOf(name, MAX_NAME_BYTES);
+            }
+            ByteBuffer record = ByteBuffer.allocate(2 + name.length + 13);
+            record.putShort((short) name.length).put(name)
+                    .putInt(entry.score)
+                    .put((byte) entry.difficultyLevel)
+                    .putInt((int) LocalDate.parse(entry.date).toEpochDay());
+            crc.reset();
+            crc.update(record.array(), 0, record.position());
+            record.putInt((int) crc.getValue());
+            bytes.write(record.array(), 0, record.position());
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    // Scores saved by older versions as one serialized list move into the log
+    @SuppressWarnings("unchecked")
+    private void importLegacyScores(Path legacy)
+    {
+        if (Files.notExists(legacy))
+        {
+            return;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(legacy)))
+        {
+            for (ScoreEntry entry : (List<ScoreEntry>) ois.readObject())
+            {
+                ScoreEntry copy = new ScoreEntry(entry.playerName, entry.score, 0,
+                        LocalDate.parse(entry.date).toEpochDay());
+                pending.add(copy);
+            }
+        }
+        catch (IOException | ClassNotFoundException | RuntimeException e)
+        {
+            System.err.println("Error loading high scores: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dungeon.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size log-linear histogram of nanosecond durations. Each power of two
+// is split into 16 buckets, so any recorded value is known to within about
+// 6%, from 1ns up to about 70 minutes (longer values land in the top bucket).
+// Recording is three atomic adds and never allocates; any number of threads
+// may record while others take snapshots.
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 41; // highest bit of a recordable value
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos)
+    {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.getAndIncrement(bucketFor(value));
+        total.getAndAdd(value);
+        if (value > max.get())
+        {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    // Buckets are read one at a time while writers carry on, so the counts
+    // may be a few records apart from total; count is taken from the buckets
+    public Snapshot snapshot()
+    {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            buckets[i] = counts.get(i);
+            count += buckets[i];
+        }
+        return new Snapshot(count, total.get(), max.get(), buckets);
+    }
+
+    static int bucketFor(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift); // 16..31
+        return (shift + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    // Largest value that falls in the bucket
+    static long upperBound(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] buckets)
+    {
+        public Snapshot
+        {
+            buckets = buckets.clone();
+        }
+
+        @Override
+        public long[] buckets()
+        {
+            return buckets.clone();
+        }
+
+        public double meanNanos()
+        {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        // Upper bound of the bucket holding the given quantile (0..1), never
+        // above the largest value recorded
+        public long percentileNanos(double quantile)
+        {
+            if (count == 0)
+            {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++)
+            {
+                seen += buckets[i];
+                if (seen >= rank)
+                {
+                    return Math.min(upperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dungeon.engine;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+// Builds a level one fixed-size chunk at a time. Every chunk has its own
+// random stream derived from the level seed and its position, so any chunk
+// can be generated (or regenerated after eviction) on its own, and an
+// in-memory map and a streamed map with the same seed hold the same level.
+final class LevelGenerator
+{
+    static final int CHUNK_SIZE = 64;
+
+    private final int rows;
+    private final int cols;
+    private final long levelSeed;
+    private final MazeGenerator mazeGenerator;
+    private final LevelParameters parameters;
+
+    LevelGenerator(int rows, int cols, long levelSeed, MazeGenerator mazeGenerator,
+                   LevelParameters parameters)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.levelSeed = levelSeed;
+        this.mazeGenerator = mazeGenerator;
+        this.parameters = parameters;
+    }
+
+    int getRows()
+    {
+        return rows;
+    }
+
+    int getCols()
+    {
+        return cols;
+    }
+
+    // Returns the chunk's CellCodes in row-major order
+    byte[] generateChunk(int originRow, int originCol, int chunkRows, int chunkCols)
+    {
+        return generateChunk(originRow, originCol, chunkRows, chunkCols, 0);
+    }
+
+    // Attempts after the first lay the chunk out from a derived seed, for
+    // LevelValidator to replace a chunk that failed its check
+    byte[] generateChunk(int originRow, int originCol, int chunkRows, int chunkCols, int attempt)
+    {
+        long chunkSeed = levelSeed + originRow * 0x9E3779B97F4A7C15L + originCol * 0xC2B2AE3D27D4EB4FL;
+        SplittableRandom random = new SplittableRandom(LevelValidator.candidateSeed(chunkSeed, attempt));
+        int area = chunkRows * chunkCols;
+
+        BitSet walls = new BitSet(area);
+        mazeGenerator.generate(chunkRows, chunkCols, random, walls);
+        openPassages(originRow, originCol, chunkRows, chunkCols, random, walls);
+
+        // Lay out floor and walls in one pass; the level's entry and exit
+        // corners never receive items
+        byte[] codes = new byte[area];
+        FreeCellSet free = new FreeCellSet(area);
+        for (int i = 0; i < area; i++)
+        {
+            if (walls.get(i))
+            {
+                codes[i] = CellCodes.WALL;
+            }
+            else
+            {
+                codes[i] = CellCodes.EMPTY;
+                if (!isCorner(originRow + i / chunkCols, originCol + i % chunkCols))
+                {
+                    free.add(i);
+                }
+            }
+        }
+
+        placeRandomly(codes, free, random, CellCodes.TRAP, LevelParameters.countFor(parameters.traps(), area));
+        placeRandomly(codes, free, random, CellCodes.GOLD, LevelParameters.countFor(parameters.gold(), area));
+        placeRandomly(codes, free, random, CellCodes.HEALTH_POTION,
+                LevelParameters.countFor(parameters.healthPotions(), area));
+        placeRandomly(codes, free, random, CellCodes.MELEE_MUTANT,
+                LevelParameters.countFor(parameters.meleeMutants(), area));
+        placeRandomly(codes, free, random, CellCodes.RANGED_MUTANT,
+                LevelParameters.countFor(parameters.rangedMutants(), area));
+        return codes;
+    }
+
+    // Each chunk's maze is connected on its own; one gap in its last column
+    // and last row joins it to the chunks to the right and below. The gaps
+    // sit on even coordinates, where BacktrackerMaze keeps its rooms.
+    private void openPassages(int originRow, int originCol, int chunkRows, int chunkCols,
+                              SplittableRandom random, BitSet walls)
+    {
+        if (originCol + chunkCols < cols)
+        {
+            int row = 2 * random.nextInt((chunkRows + 1) / 2);
+            walls.clear(row * chunkCols + chunkCols - 1);
+            walls.clear(row * chunkCols + chunkCols - 2);
+        }
+        if (originRow + chunkRows < rows)
+        {
+            int col = 2 * random.nextInt((chunkCols + 1) / 2);
+            walls.clear((chunkRows - 1) * chunkCols + col);
+            walls.clear((chunkRows - 2) * chunkCols + col);
+        }
+    }
+
+    private boolean isCorner(int row, int col)
+    {
+        return (row == 0 && col == 0) || (row == rows - 1 && col == cols - 1);
+    }
+
+    // Fills up to count random free cells, stopping early if none are left
+    private static void placeRandomly(byte[] codes, FreeCellSet free, SplittableRandom random,
+                                      byte code, int count)
+    {
+        for (int placed = 0; placed < count && free.size() > 0; placed++)
+        {
+            codes[free.takeRandom(random)] = code;
+        }
+    }
+}
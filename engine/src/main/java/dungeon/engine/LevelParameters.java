@@ -0,0 +1,148 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// How many of each item and monster a level gets, expressed per 100 tiles of
+// map area so bigger maps scale up. At difficulty 1 a 10x10 map keeps the
+// original counts: 5 traps, 5 gold, 2 potions, 3 melee and 3 ranged mutants.
+//
+// The table can be replaced by a properties file written by
+// DifficultyCalibrator: -Ddungeon.difficultyConfig=<file>, or
+// difficulty.properties in the working directory. It is read once at startup.
+public record LevelParameters(double traps, double gold, double healthPotions,
+                              double meleeMutants, double rangedMutants)
+{
+    static final String CONFIG_PROPERTY = "dungeon.difficultyConfig";
+    static final String DEFAULT_CONFIG_FILE = "difficulty.properties";
+
+    private static final LevelParameters[] DEFAULTS = {
+            new LevelParameters(5, 5, 2, 3, 3),
+            new LevelParameters(7, 4, 2, 4, 4),
+            new LevelParameters(9, 3, 1, 5, 5),
+    };
+
+    private static final LevelParameters[] BY_DIFFICULTY = loadConfigured();
+
+    public LevelParameters
+    {
+        if (!(traps >= 0 && gold >= 0 && healthPotions >= 0 && meleeMutants >= 0 && rangedMutants >= 0))
+        {
+            throw new IllegalArgumentException("Densities must be non-negative numbers");
+        }
+    }
+
+    // Difficulty levels outside the table use the nearest defined level
+    public static LevelParameters forDifficulty(int difficultyLevel)
+    {
+        int index = Math.max(1, Math.min(difficultyLevel, BY_DIFFICULTY.length)) - 1;
+        return BY_DIFFICULTY[index];
+    }
+
+    // The built-in table, ignoring any config file
+    static LevelParameters defaultsFor(int difficultyLevel)
+    {
+        int index = Math.max(1, Math.min(difficultyLevel, DEFAULTS.length)) - 1;
+        return DEFAULTS[index];
+    }
+
+    static int difficultyLevels()
+    {
+        return DEFAULTS.length;
+    }
+
+    // Same traps and mutants scaled by factor, rewards unchanged
+    LevelParameters withHazardsScaled(double factor)
+    {
+        return new LevelParameters(traps * factor, gold, healthPotions,
+                meleeMutants * factor, rangedMutants * factor);
+    }
+
+    // Number of cells to fill on a map with the given area
+    static int countFor(double perHundredTiles, int area)
+    {
+        return (int) Math.round(perHundredTiles * area / 100.0);
+    }
+
+    // Reads a table written by store; difficulties missing from the file keep
+    // their built-in values
+    static LevelParameters[] load(Path file) throws IOException
+    {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1))
+        {
+            properties.load(reader);
+        }
+
+        LevelParameters[] table = DEFAULTS.clone();
+        for (int level = 1; level <= table.length; level++)
+        {
+            String prefix = "difficulty." + level + ".";
+            LevelParameters base = table[level - 1];
+            try
+            {
+                table[level - 1] = new LevelParameters(
+                        read(properties, prefix + "traps", base.traps()),
+                        read(properties, prefix + "gold", base.gold()),
+                        read(properties, prefix + "healthPotions", base.healthPotions()),
+                        read(properties, prefix + "meleeMutants", base.meleeMutants()),
+                        read(properties, prefix + "rangedMutants", base.rangedMutants()));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException(file + ": difficulty " + level + ": " + e.getMessage(), e);
+            }
+        }
+        return table;
+    }
+
+    static void store(LevelParameters[] table, Path file, String comment) throws IOException
+    {
+        Properties properties = new Properties();
+        for (int level = 1; level <= table.length; level++)
+        {
+            String prefix = "difficulty." + level + ".";
+            LevelParameters parameters = table[level - 1];
+            properties.setProperty(prefix + "traps", Double.toString(parameters.traps()));
+            properties.setProperty(prefix + "gold", Double.toString(parameters.gold()));
+            properties.setProperty(prefix + "healthPotions", Double.toString(parameters.healthPotions()));
+            properties.setProperty(prefix + "meleeMutants", Double.toString(parameters.meleeMutants()));
+            properties.setProperty(prefix + "rangedMutants", Double.toString(parameters.rangedMutants()));
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1))
+        {
+            properties.store(writer, comment);
+        }
+    }
+
+    private static double read(Properties properties, String key, double fallback)
+    {
+        String value = properties.getProperty(key);
+        return value == null ? fallback : Double.parseDouble(value.trim());
+    }
+
+    // A broken config must not stop the game from starting
+    private static LevelParameters[] loadConfigured()
+    {
+        String configured = System.getProperty(CONFIG_PROPERTY);
+        Path file = Path.of(configured != null ? configured : DEFAULT_CONFIG_FILE);
+        if (configured == null && !Files.isRegularFile(file))
+        {
+            return DEFAULTS;
+        }
+        try
+        {
+            return load(file);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.println("Ignoring difficulty config " + file + ": " + e.getMessage());
+            return DEFAULTS;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package dungeon.engine;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+// Checks that a generated level can be won: the exit corner is reachable
+// from the entry corner and so is every gold and health potion. Failed
+// layouts are replaced by candidates generated from seeds derived from the
+// level seed, several at a time in parallel; the lowest-numbered playable
+// candidate wins, so the result does not depend on scheduling.
+//
+// Streamed levels are too large to flood-fill whole, so they are checked a
+// chunk at a time as chunks are generated: a chunk whose open cells are not
+// all connected, or that walls off a cell where a neighbouring chunk's
+// passage arrives, is replaced by one from a derived seed. Chunks are joined
+// to their right and lower neighbours, so connected chunks make a connected
+// level, with the entry, exit and every item reachable.
+final class LevelValidator
+{
+    private static final int MAX_ATTEMPTS = 64;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int PARALLEL_CANDIDATES = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private LevelValidator()
+    {
+    }
+
+    static ArrayMap generatePlayable(int rows, int cols, long levelSeed, MazeGenerator mazeGenerator,
+                                     LevelParameters parameters)
+    {
+        // The usual case: the level as seeded is fine, and nothing else runs
+        ArrayMap map = ArrayMap.generate(new LevelGenerator(rows, cols, levelSeed, mazeGenerator, parameters));
+        if (isPlayable(map))
+        {
+            return map;
+        }
+        for (int first = 1; first < MAX_ATTEMPTS; first += PARALLEL_CANDIDATES)
+        {
+            int last = Math.min(MAX_ATTEMPTS, first + PARALLEL_CANDIDATES);
+            ArrayMap candidate = IntStream.range(first, last).parallel()
+                    .mapToObj(attempt -> ArrayMap.generate(new LevelGenerator(rows, cols,
+                            candidateSeed(levelSeed, attempt), mazeGenerator, parameters)))
+                    .filter(LevelValidator::isPlayable)
+                    .findFirst()
+                    .orElse(null);
+            if (candidate != null)
+            {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No playable " + rows + "x" + cols + " level after "
+                + MAX_ATTEMPTS + " attempts; does the maze generator connect the corners?");
+    }
+
+    static byte[] generateConnectedChunk(LevelGenerator generator, int originRow, int originCol,
+                                         int chunkRows, int chunkCols)
+    {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+        {
+            byte[] codes = generator.generateChunk(originRow, originCol, chunkRows, chunkCols, attempt);
+            if (isConnectedChunk(codes, originRow, originCol, chunkRows, chunkCols,
+                    generator.getRows(), generator.getCols()))
+            {
+                return codes;
+            }
+        }
+        throw new IllegalStateException("No connected chunk at " + originRow + "," + originCol + " after "
+                + MAX_ATTEMPTS + " attempts; does the maze generator connect its rooms?");
+    }
+
+    // Passages from the chunks to the left and above arrive on even rows of
+    // the first column and even columns of the first row, so those cells
+    // must be open. The level's corners count as open, as in isPlayable.
+    static boolean isConnectedChunk(byte[] codes, int originRow, int originCol, int chunkRows, int chunkCols,
+                                    int rows, int cols)
+    {
+        int area = chunkRows * chunkCols;
+        BitSet open = new BitSet(area);
+        for (int tile = 0; tile < area; tile++)
+        {
+            int row = originRow + tile / chunkCols;
+            int col = originCol + tile % chunkCols;
+            boolean corner = (row == 0 && col == 0) || (row == rows - 1 && col == cols - 1);
+            if (corner || !CellCodes.blocksMovement(codes[tile]))
+            {
+                open.set(tile);
+            }
+        }
+        for (int row = 0; originCol > 0 && row < chunkRows; row += 2)
+        {
+            if (!open.get(row * chunkCols))
+            {
+                return false;
+            }
+        }
+        for (int col = 0; originRow > 0 && col < chunkCols; col += 2)
+        {
+            if (!open.get(col))
+            {
+                return false;
+            }
+        }
+
+        int start = open.nextSetBit(0);
+        if (start < 0)
+        {
+            return false;
+        }
+        BitSet reached = new BitSet(area);
+        int[] queue = new int[area];
+        int head = 0;
+        int tail = 0;
+        reached.set(start);
+        queue[tail++] = start;
+        while (head < tail)
+        {
+            int tile = queue[head++];
+            int row = tile / chunkCols;
+            int col = tile % chunkCols;
+            for (Direction direction : DIRECTIONS)
+            {
+                int nextRow = row + direction.getRowDelta();
+                int nextCol = col + direction.getColDelta();
+                if (nextRow < 0 || nextRow >= chunkRows || nextCol < 0 || nextCol >= chunkCols)
+                {
+                    continue;
+                }
+                int next = nextRow * chunkCols + nextCol;
+                if (open.get(next) && !reached.get(next))
+                {
+                    reached.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail == open.cardinality();
+    }
+
+    static long candidateSeed(long levelSeed, int attempt)
+    {
+        return attempt == 0 ? levelSeed : levelSeed + attempt * 0xBF58476D1CE4E5B9L;
+    }
+
+    // Flood fill from the entry corner. The corners count as open because
+    // the engine puts the entry and exit there whatever was generated.
+    static boolean isPlayable(DungeonMap map)
+    {
+        int rows = map.getRows();
+        int cols = map.getCols();
+        int area = rows * cols;
+        int exit = area - 1;
+        BitSet reached = new BitSet(area);
+        int[] queue = new int[area];
+        int head = 0;
+        int tail = 0;
+        reached.set(0);
+        queue[tail++] = 0;
+        while (head < tail)
+        {
+            int tile = queue[head++];
+            int row = tile / cols;
+            int col = tile % cols;
+            for (Direction direction : DIRECTIONS)
+            {
+                int nextRow = row + direction.getRowDelta();
+                int nextCol = col + direction.getColDelta();
+                if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= cols)
+                {
+                    continue;
+                }
+                int next = nextRow * cols + nextCol;
+                if (!reached.get(next)
+                        && (next == exit || !CellCodes.blocksMovement(map.getCode(nextRow, nextCol))))
+                {
+                    reached.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (!reached.get(exit))
+        {
+            return false;
+        }
+        for (int tile = reached.nextClearBit(0); tile < area; tile = reached.nextClearBit(tile + 1))
+        {
+            if (CellCodes.isCollectible(map.getCode(tile / cols, tile % cols)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
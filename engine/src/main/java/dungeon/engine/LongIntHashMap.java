@@ -0,0 +1,157 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Minimal open-addressing long -> int map (linear probing, backward-shift
+// deletion). Absent keys read as 0, so callers store non-zero values only.
+// Avoids boxing a Long and an Integer on every lookup in per-move code.
+final class LongIntHashMap
+{
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap()
+    {
+        this(16);
+    }
+
+    LongIntHashMap(int expectedSize)
+    {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    int get(long key)
+    {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE)
+        {
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    // Stores value for key; a value of 0 removes the key
+    void put(long key, int value)
+    {
+        if (value == 0)
+        {
+            remove(key);
+            return;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != FREE)
+        {
+            if (keys[slot] == key)
+            {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length)
+        {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Adds delta to the value for key and returns the new value
+    int addTo(long key, int delta)
+    {
+        int value = get(key) + delta;
+        put(key, value);
+        return value;
+    }
+
+    // Removes key and returns its old value (0 if absent)
+    int remove(long key)
+    {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE)
+        {
+            if (keys[slot] == key)
+            {
+                int old = values[slot];
+                shiftBack(slot);
+                size--;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    void clear()
+    {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private void shiftBack(int hole)
+    {
+        int slot = hole;
+        while (true)
+        {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == FREE)
+            {
+                break;
+            }
+            // Move the entry into the hole unless its home slot lies
+            // cyclically between the hole and its current slot
+            int home = slotOf(key);
+            if (((slot - home) & mask) >= ((slot - hole) & mask))
+            {
+                keys[hole] = key;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    private int slotOf(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != FREE)
+            {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// Immutable copy of an in-memory level, safe to read from any thread. The
+// grid is cut into square chunks of cell codes; a new version shares every
+// chunk with the previous one except those written since, so publishing
+// after a move copies a chunk or two plus the chunk table, not the level.
+// Chunks grow with the map (8x8 up to 64x64) to keep the table short.
+// Each byte also carries the fog of war: whether the player sees the cell
+// now and whether they have ever seen it.
+public final class MapSnapshot
+{
+    private static final int VISIBLE = 0x20;
+    private static final int EXPLORED = 0x40;
+    private static final int CODE_MASK = 0x1F;
+
+    private static final int MIN_CHUNK_BITS = 3;
+    private static final int MAX_CHUNK_BITS = 6;
+    private static final int TARGET_CHUNKS_PER_SIDE = 32;
+
+    private final int rows;
+    private final int cols;
+    private final int chunkBits;
+    private final int chunkCols;
+    private final byte[][] chunks; // CellCodes plus fog bits, row-major within each chunk
+    private final Object lineage;  // shared by all versions of one level
+
+    private MapSnapshot(int rows, int cols, int chunkBits, byte[][] chunks, Object lineage)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkBits = chunkBits;
+        this.chunkCols = chunksAcross(cols, chunkBits);
+        this.chunks = chunks;
+        this.lineage = lineage;
+    }
+
+    private static int chunkBitsFor(int rows, int cols)
+    {
+        int perChunk = Math.max(rows, cols) / TARGET_CHUNKS_PER_SIDE;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(perChunk - 1, 0));
+        return Math.max(MIN_CHUNK_BITS, Math.min(bits, MAX_CHUNK_BITS));
+    }
+
+    private static int chunksAcross(int cells, int chunkBits)
+    {
+        return (cells + (1 << chunkBits) - 1) >>> chunkBits;
+    }
+
+    // Keeps a private copy of an in-memory map up to date as the engine
+    // writes cells, and hands out immutable versions of it. After a version
+    // is handed out, its chunk table and chunks are copied again only where
+    // they are written.
+    static final class Writer
+    {
+        private int rows;
+        private int cols;
+        private int chunkBits;
+        private int chunkCols;
+        private byte[][] chunks;
+        private int[] copiedIn; // generation in which each chunk was last copied
+        private int generation;
+        private boolean tableShared;
+        private Object lineage;
+        private MapSnapshot latest;
+
+        // Starts a new lineage from a full copy, e.g. for a new level. Every
+        // cell starts unexplored, or visible if the level is revealed.
+        void reset(DungeonMap map, boolean revealed)
+        {
+            rows = map.getRows();
+            cols = map.getCols();
+            chunkBits = chunkBitsFor(rows, cols);
+            chunkCols = chunksAcross(cols, chunkBits);
+            int chunkRows = chunksAcross(rows, chunkBits);
+            chunks = new byte[Math.multiplyExact(chunkRows, chunkCols)][1 << 2 * chunkBits];
+            copiedIn = new int[chunks.length];
+            generation++;
+            Arrays.fill(copiedIn, generation);
+            tableShared = false;
+            lineage = new Object();
+            latest = null;
+            int fog = revealed ? VISIBLE | EXPLORED : 0;
+            for (int row = 0; row < rows; row++)
+            {
+                for (int col = 0; col < cols; col++)
+                {
+                    chunks[chunkIndex(row, col)][offset(row, col, chunkBits)] = (byte) (map.getCode(row, col) | fog);
+                }
+            }
+        }
+
+        void set(int row, int col, Cell cell)
+        {
+            byte[] chunk = writable(row, col);
+            int offset = offset(row, col, chunkBits);
+            chunk[offset] = (byte) (chunk[offset] & ~CODE_MASK | CellCodes.encode(cell));
+        }
+
+        void setFog(int row, int col, boolean visible, boolean explored)
+        {
+            byte[] chunk = writable(row, col);
+            int offset = offset(row, col, chunkBits);
+            chunk[offset] = (byte) (chunk[offset] & CODE_MASK | (visible ? VISIBLE : 0) | (explored ? EXPLORED : 0));
+        }
+
+        private byte[] writable(int row, int col)
+        {
+            if (tableShared)
+            {
+                chunks = chunks.clone();
+                tableShared = false;
+            }
+            int index = chunkIndex(row, col);
+            if (copiedIn[index] != generation)
+            {
+                chunks[index] = chunks[index].clone();
+                copiedIn[index] = generation;
+            }
+            latest = null;
+            return chunks[index];
+        }
+
+        // The same instance until the next write
+        MapSnapshot snapshot()
+        {
+            if (latest == null)
+            {
+                latest = new MapSnapshot(rows, cols, chunkBits, chunks, lineage);
+                tableShared = true;
+                generation++;
+            }
+            return latest;
+        }
+
+        private int chunkIndex(int row, int col)
+        {
+            return (row >>> chunkBits) * chunkCols + (col >>> chunkBits);
+        }
+    }
+
+    public int getRows()
+    {
+        return rows;
+    }
+
+    public int getCols()
+    {
+        return cols;
+    }
+
+    public Cell getCell(int row, int col)
+    {
+        return CellCodes.decode(byteAt(row, col) & CODE_MASK);
+    }
+
+    public boolean isVisible(int row, int col)
+    {
+        return (byteAt(row, col) & VISIBLE) != 0;
+    }
+
+    public boolean isExplored(int row, int col)
+    {
+        return (byteAt(row, col) & EXPLORED) != 0;
+    }
+
+    // What the player knows is on a cell: null if they have never seen it,
+    // and no monsters where they cannot see now, since those move
+    public Cell getRevealedCell(int row, int col)
+    {
+        int value = byteAt(row, col);
+        if ((value & EXPLORED) == 0)
+        {
+            return null;
+        }
+        Cell cell = CellCodes.decode(value & CODE_MASK);
+        return (value & VISIBLE) != 0 ? cell : FieldOfView.remembered(cell);
+    }
+
+    private int byteAt(int row, int col)
+    {
+        Objects.checkIndex(row, rows);
+        Objects.checkIndex(col, cols);
+        return chunks[chunkIndex(row, col)][offset(row, col, chunkBits)];
+    }
+
+    // Reports every cell that differs from an older version of the same
+    // level, including cells that only came into or out of view. Returns
+    // false without calling the consumer when older is null or from another
+    // level, and callers should redraw everything.
+    public boolean changedSince(MapSnapshot older, CellPositionConsumer consumer)
+    {
+        if (older == null || older.lineage != lineage)
+        {
+            return false;
+        }
+        for (int index = 0; index < chunks.length; index++)
+        {
+            byte[] now = chunks[index];
+            byte[] before = older.chunks[index];
+            if (now == before)
+            {
+                continue;
+            }
+            int originRow = (index / chunkCols) << chunkBits;
+            int originCol = (index % chunkCols) << chunkBits;
+            int mask = (1 << chunkBits) - 1;
+            for (int offset = 0; offset < now.length; offset++)
+            {
+                if (now[offset] != before[offset])
+                {
+                    consumer.accept(originRow + (offset >>> chunkBits), originCol + (offset & mask));
+                }
+            }
+        }
+        return true;
+    }
+
+    private int chunkIndex(int row, int col)
+    {
+        return (row >>> chunkBits) * chunkCols + (col >>> chunkBits);
+    }
+
+    private static int offset(int row, int col, int chunkBits)
+    {
+        int mask = (1 << chunkBits) - 1;
+        return (row & mask) << chunkBits | (col & mask);
+    }
+}
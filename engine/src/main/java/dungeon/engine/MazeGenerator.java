@@ -0,0 +1,22 @@
+package dungeon.engine;
+
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+// Lays out the walls of a level. Implementations set bit row * cols + col
+// for every wall and must leave the corners (0, 0) and (rows - 1, cols - 1)
+// open and connected to each other: they are the entry and exit of a level.
+public interface MazeGenerator
+{
+    void generate(int rows, int cols, RandomGenerator random, BitSet walls);
+
+    // The hand-made layout for the classic 10x10 map, a random maze otherwise
+    static MazeGenerator forSize(int rows, int cols)
+    {
+        if (rows == ClassicMaze.SIZE && cols == ClassicMaze.SIZE)
+        {
+            return new ClassicMaze();
+        }
+        return new BacktrackerMaze();
+    }
+}
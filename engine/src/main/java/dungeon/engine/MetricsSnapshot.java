@@ -0,0 +1,39 @@
+package dungeon.engine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Point-in-time copy of an EngineMetrics registry, sorted by name
+public record MetricsSnapshot(Map<String, Long> counters, Map<String, LatencyHistogram.Snapshot> latencies)
+{
+    public MetricsSnapshot
+    {
+        counters = Collections.unmodifiableMap(new TreeMap<>(counters));
+        latencies = Collections.unmodifiableMap(new TreeMap<>(latencies));
+    }
+
+    public long counter(String name)
+    {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    // One line per metric; latencies in microseconds
+    public String format()
+    {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> counter : counters.entrySet())
+        {
+            text.append(String.format("%-34s %d%n", counter.getKey(), counter.getValue()));
+        }
+        for (Map.Entry<String, LatencyHistogram.Snapshot> latency : latencies.entrySet())
+        {
+            LatencyHistogram.Snapshot histogram = latency.getValue();
+            text.append(String.format("%-34s count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    "latency." + latency.getKey(), histogram.count(), histogram.meanNanos() / 1e3,
+                    histogram.percentileNanos(0.5) / 1e3, histogram.percentileNanos(0.99) / 1e3,
+                    histogram.percentileNanos(0.999) / 1e3, histogram.maxNanos() / 1e3));
+        }
+        return text.toString();
+    }
+}
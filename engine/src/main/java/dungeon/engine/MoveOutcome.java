@@ -0,0 +1,31 @@
+package dungeon.engine;
+
+// Per-move result codes written by GameEngine.applyMoves, one byte per move.
+// The low bits hold the status; the high bits flag what else happened.
+public final class MoveOutcome
+{
+    public static final int STATUS_MASK = 0x0F;
+    public static final int MOVED = 1;         // the player moved and used a turn
+    public static final int BLOCKED = 2;       // wall or map edge, nothing changed
+    public static final int FINISHED = 3;      // the game was already over, nothing changed
+    public static final int BAD_DIRECTION = 4; // not a Direction code, nothing changed
+
+    public static final int INTERACTED = 0x10;     // stepped onto an item or monster
+    public static final int HIT = 0x20;            // a ranged mutant hit the player
+    public static final int LEVEL_COMPLETE = 0x40; // reached the exit
+    public static final int GAME_ENDED = 0x80;     // this move won or lost the game
+
+    private MoveOutcome()
+    {
+    }
+
+    public static int status(byte outcome)
+    {
+        return outcome & STATUS_MASK;
+    }
+
+    public static boolean has(byte outcome, int flag)
+    {
+        return (outcome & flag) != 0;
+    }
+}
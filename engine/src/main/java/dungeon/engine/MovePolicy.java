@@ -0,0 +1,30 @@
+package dungeon.engine;
+
+import java.util.random.RandomGenerator;
+
+// Decides the next move for an automated player. Implementations must not
+// keep per-game state in shared fields: SimulationRunner calls the same
+// policy from many threads at once, each with its own engine and random.
+@FunctionalInterface
+public interface MovePolicy
+{
+    Direction nextMove(GameEngine engine, RandomGenerator random);
+
+    // Uniform random walk, the baseline used for balancing runs
+    static MovePolicy randomWalk()
+    {
+        return (engine, random) -> Direction.fromCode(random.nextInt(4));
+    }
+
+    // Replans RouteSolver's best-score route every move and takes its first
+    // step, walking randomly when no survivable route exists. Solvers keep
+    // scratch state, so each thread gets its own.
+    static MovePolicy routePlanner()
+    {
+        ThreadLocal<RouteSolver> solvers = ThreadLocal.withInitial(RouteSolver::new);
+        return (engine, random) -> {
+            Direction hint = solvers.get().hint(engine);
+            return hint != null ? hint : Direction.fromCode(random.nextInt(4));
+        };
+    }
+}
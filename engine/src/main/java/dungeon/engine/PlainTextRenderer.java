@@ -0,0 +1,69 @@
+package dungeon.engine;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+// Prints the whole board after every command, for terminals without
+// cursor control and for network clients. The border and spacing bytes
+// are laid out once; each frame only rewrites the symbols.
+final class PlainTextRenderer implements TextRenderer
+{
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final PrintStream out;
+    private byte[] frame = new byte[0];
+    private int rows = -1;
+    private int cols = -1;
+    private int lineLength;
+
+    PlainTextRenderer(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    @Override
+    public void render(GameEngine engine)
+    {
+        if (engine.getRows() != rows || engine.getCols() != cols)
+        {
+            layout(engine.getRows(), engine.getCols());
+        }
+        // Every frame is complete, but the tracker still needs emptying
+        engine.drainChangedCells((row, col) -> { });
+
+        for (int i = 0; i < rows; i++)
+        {
+            int offset = (i + 1) * lineLength + 2;
+            for (int j = 0; j < cols; j++)
+            {
+                frame[offset + 2 * j] = TextRenderer.symbolAt(engine, i, j);
+            }
+        }
+        out.write(frame, 0, frame.length);
+    }
+
+    // "-----" / "| . . |" rows / "-----", as TextUI has always drawn it
+    private void layout(int rows, int cols)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        int width = cols * 2 + 3;
+        lineLength = width + NEWLINE.length;
+        frame = new byte[lineLength * (rows + 2)];
+        for (int line = 0; line < rows + 2; line++)
+        {
+            int offset = line * lineLength;
+            boolean border = line == 0 || line == rows + 1;
+            for (int x = 0; x < width; x++)
+            {
+                frame[offset + x] = (byte) (border ? '-' : ' ');
+            }
+            if (!border)
+            {
+                frame[offset] = '|';
+                frame[offset + width - 1] = '|';
+            }
+            System.arraycopy(NEWLINE, 0, frame, offset + width, NEWLINE.length);
+        }
+    }
+}
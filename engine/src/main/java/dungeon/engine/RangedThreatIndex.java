@@ -0,0 +1,100 @@
+package dungeon.engine;
+
+// Spatial index of ranged mutants plus a threat map counting how many of
+// them can shoot each cell. Both are sparse and keyed by cell, so memory and
+// per-move cost scale with the number of mutants rather than the map area.
+// GameEngine keeps it current by reporting every cell change.
+final class RangedThreatIndex
+{
+    // Line-of-sight rule for a shooter/target pair (GameEngine.canRangedMutantShoot)
+    @FunctionalInterface
+    interface LineOfSight
+    {
+        boolean canShoot(int mutantRow, int mutantCol, int targetRow, int targetCol);
+    }
+
+    // Cells a ranged mutant can reach: up to two tiles away in a straight line
+    private static final int[] ROW_OFFSETS = {-2, -1, 0, 0, 0, 0, 1, 2};
+    private static final int[] COL_OFFSETS = {0, 0, -2, -1, 1, 2, 0, 0};
+    private static final int PRESENT = 1 << ROW_OFFSETS.length;
+
+    private final int rows;
+    private final int cols;
+    private final LineOfSight lineOfSight;
+    private final LongIntHashMap mutants = new LongIntHashMap(); // cell -> PRESENT | bit per reachable offset
+    private final LongIntHashMap threat = new LongIntHashMap();  // cell -> number of mutants that can hit it
+
+    RangedThreatIndex(int rows, int cols, LineOfSight lineOfSight)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.lineOfSight = lineOfSight;
+    }
+
+    static long key(int row, int col)
+    {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    void clear()
+    {
+        mutants.clear();
+        threat.clear();
+    }
+
+    int mutantCount()
+    {
+        return mutants.size();
+    }
+
+    // Number of ranged mutants with a clear shot at the cell
+    int threatAt(int row, int col)
+    {
+        return threat.get(key(row, col));
+    }
+
+    void addMutant(int row, int col)
+    {
+        int reachable = PRESENT;
+        for (int i = 0; i < ROW_OFFSETS.length; i++)
+        {
+            int targetRow = row + ROW_OFFSETS[i];
+            int targetCol = col + COL_OFFSETS[i];
+            if (targetRow >= 0 && targetRow < rows && targetCol >= 0 && targetCol < cols
+                    && lineOfSight.canShoot(row, col, targetRow, targetCol))
+            {
+                reachable |= 1 << i;
+                threat.addTo(key(targetRow, targetCol), 1);
+            }
+        }
+        mutants.put(key(row, col), reachable);
+    }
+
+    void removeMutant(int row, int col)
+    {
+        int reachable = mutants.remove(key(row, col));
+        for (int i = 0; i < ROW_OFFSETS.length; i++)
+        {
+            if ((reachable & (1 << i)) != 0)
+            {
+                threat.addTo(key(row + ROW_OFFSETS[i], col + COL_OFFSETS[i]), -1);
+            }
+        }
+    }
+
+    // A wall appeared or disappeared: re-evaluate the mutants whose shots
+    // could pass through the cell
+    void lineOfSightChanged(int row, int col)
+    {
+        for (int i = 0; i < ROW_OFFSETS.length; i++)
+        {
+            int mutantRow = row + ROW_OFFSETS[i];
+            int mutantCol = col + COL_OFFSETS[i];
+            if (mutants.get(key(mutantRow, mutantCol)) != 0)
+            {
+                removeMutant(mutantRow, mutantCol);
+                addMutant(mutantRow, mutantCol);
+            }
+        }
+    }
+}
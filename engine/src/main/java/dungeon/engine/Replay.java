@@ -0,0 +1,163 @@
+package dungeon.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Everything needed to reproduce a game exactly: the engine seed and
+// settings plus every accepted move, packed 2 bits per move (4 per byte).
+// A 100-move game fits in 25 bytes of moves.
+public class Replay
+{
+    private static final int FORMAT_VERSION = 1;
+
+    private final long seed;
+    private final int rows;
+    private final int cols;
+    private final int difficultyLevel;
+    private byte[] packedMoves;
+    private int moveCount;
+
+    public Replay(long seed, int size, int difficultyLevel)
+    {
+        this(seed, size, size, difficultyLevel);
+    }
+
+    public Replay(long seed, int rows, int cols, int difficultyLevel)
+    {
+        this(seed, rows, cols, difficultyLevel, new byte[32], 0);
+    }
+
+    Replay(long seed, int rows, int cols, int difficultyLevel, byte[] packedMoves, int moveCount)
+    {
+        this.seed = seed;
+        this.rows = rows;
+        this.cols = cols;
+        this.difficultyLevel = difficultyLevel;
+        this.packedMoves = packedMoves;
+        this.moveCount = moveCount;
+    }
+
+    public long getSeed() { return seed; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getDifficultyLevel() { return difficultyLevel; }
+    public int getMoveCount() { return moveCount; }
+
+    public void record(Direction direction)
+    {
+        int byteIndex = moveCount >>> 2;
+        if (byteIndex == packedMoves.length)
+        {
+            packedMoves = Arrays.copyOf(packedMoves, packedMoves.length * 2);
+        }
+        packedMoves[byteIndex] |= (byte) (direction.code() << ((moveCount & 3) * 2));
+        moveCount++;
+    }
+
+    // Forgets the newest move, after GameEngine.undo
+    void removeLast()
+    {
+        moveCount--;
+        packedMoves[moveCount >>> 2] &= (byte) ~(3 << ((moveCount & 3) * 2));
+    }
+
+    // The packed moves, (moveCount + 3) / 4 bytes
+    byte[] packedMoves()
+    {
+        return Arrays.copyOf(packedMoves, (moveCount + 3) >>> 2);
+    }
+
+    public Direction getMove(int index)
+    {
+        if (index < 0 || index >= moveCount)
+        {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + moveCount);
+        }
+        return Direction.fromCode((packedMoves[index >>> 2] >>> ((index & 3) * 2)) & 3);
+    }
+
+    // Re-runs the whole game headlessly and returns the engine in its final state
+    public GameEngine play()
+    {
+        return play(moveCount);
+    }
+
+    // Fast-forwards a fresh engine through the first moves of the recording
+    public GameEngine play(int moves)
+    {
+        GameEngine engine = new GameEngine(rows, cols, difficultyLevel, seed);
+        for (int i = 0; i < moves; i++)
+        {
+            if (!engine.movePlayer(getMove(i)))
+            {
+                throw new IllegalStateException("Replay diverged at move " + i
+                        + " - the rules changed since it was recorded");
+            }
+        }
+        return engine;
+    }
+
+    public void writeTo(OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte(FORMAT_VERSION);
+        data.writeLong(seed);
+        data.writeInt(rows);
+        data.writeInt(cols);
+        data.writeInt(difficultyLevel);
+        data.writeInt(moveCount);
+        data.write(packedMoves, 0, (moveCount + 3) >>> 2);
+        data.flush();
+    }
+
+    public static Replay readFrom(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        int version = data.readUnsignedByte();
+        if (version != FORMAT_VERSION)
+        {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = data.readLong();
+        int rows = data.readInt();
+        int cols = data.readInt();
+        int difficultyLevel = data.readInt();
+        int moveCount = data.readInt();
+        if (rows <= 0 || cols <= 0)
+        {
+            throw new IOException("Corrupt replay: map is " + rows + "x" + cols);
+        }
+        if (difficultyLevel < 1 || difficultyLevel > LevelParameters.difficultyLevels())
+        {
+            throw new IOException("Corrupt replay: difficulty " + difficultyLevel);
+        }
+        if (moveCount < 0)
+        {
+            throw new IOException("Corrupt replay: negative move count");
+        }
+        // The count is untrusted: grow the buffer as bytes actually arrive
+        // rather than allocating whatever the header claims
+        int byteCount = (int) ((moveCount + 3L) >>> 2);
+        byte[] packed = new byte[Math.max(32, Math.min(byteCount, 1 << 16))];
+        int read = 0;
+        while (read < byteCount)
+        {
+            if (read == packed.length)
+            {
+                packed = Arrays.copyOf(packed, (int) Math.min(byteCount, 2L * packed.length));
+            }
+            int n = data.read(packed, read, Math.min(byteCount, packed.length) - read);
+            if (n < 0)
+            {
+                throw new EOFException("Replay ends after " + read + " of " + byteCount + " bytes of moves");
+            }
+            read += n;
+        }
+        return new Replay(seed, rows, cols, difficultyLevel, packed, moveCount);
+    }
+}
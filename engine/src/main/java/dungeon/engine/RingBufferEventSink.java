@@ -0,0 +1,77 @@
+package dungeon.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Lock-free single-producer, single-consumer queue of events. The engine
+// thread publishes into preallocated slots without allocating or blocking;
+// another thread (e.g. the GUI) drains them. When the consumer falls a
+// full buffer behind, new events are dropped and counted.
+public final class RingBufferEventSink implements GameEventSink
+{
+    private final int mask;
+    private final byte[] types;
+    private final int[] amounts;
+    private final int[] scores;
+    private final int[] playerHPs;
+    private final int[] levels;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to read
+    private final AtomicLong tail = new AtomicLong(); // next slot to write
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Capacity is rounded up to a power of two
+    public RingBufferEventSink(int capacity)
+    {
+        if (capacity < 1 || capacity > 1 << 30)
+        {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = slots - 1;
+        this.types = new byte[slots];
+        this.amounts = new int[slots];
+        this.scores = new int[slots];
+        this.playerHPs = new int[slots];
+        this.levels = new int[slots];
+    }
+
+    @Override
+    public void onEvent(GameEventType type, int amount, GameState state)
+    {
+        long t = tail.getPlain();
+        if (t - head.getAcquire() > mask)
+        {
+            dropped.incrementAndGet();
+            return;
+        }
+        int slot = (int) t & mask;
+        types[slot] = (byte) type.ordinal();
+        amounts[slot] = amount;
+        scores[slot] = state.getScore();
+        playerHPs[slot] = state.getPlayerHP();
+        levels[slot] = state.getCurrentLevel();
+        tail.setRelease(t + 1); // publishes the slot contents
+    }
+
+    // Hands every event published so far to the consumer, oldest first;
+    // returns how many there were
+    public int drain(Consumer<GameEvent> consumer)
+    {
+        long h = head.getPlain();
+        long t = tail.getAcquire();
+        for (long i = h; i < t; i++)
+        {
+            int slot = (int) i & mask;
+            consumer.accept(new GameEvent(GameEventType.fromCode(types[slot]), amounts[slot],
+                    scores[slot], playerHPs[slot], levels[slot]));
+        }
+        head.setRelease(t); // frees the slots for the producer
+        return (int) (t - h);
+    }
+
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,17 @@
+package dungeon.engine;
+
+// A planned sequence of moves, as Direction codes that can be passed
+// straight to GameEngine.applyMoves. Damage is the expected HP lost on the
+// way (ranged shots count half their damage) and score the points picked up.
+public record Route(byte[] moves, int expectedDamage, int score)
+{
+    public int length()
+    {
+        return moves.length;
+    }
+
+    public Direction getMove(int index)
+    {
+        return Direction.fromCode(moves[index]);
+    }
+}
@@ -0,0 +1,375 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Plans routes from the player to the exit within the remaining moves.
+//
+// The search only ever looks at the window of tiles the player could reach
+// with the moves left, so its cost does not depend on the map size. It is a
+// bucket-queue Dijkstra over (damage, steps): damage first, so the route
+// avoids traps, melee mutants and tiles in ranged line of sight when it can,
+// then steps. Every array is scratch kept between queries; a solver is not
+// thread-safe, so give each thread (or game) its own.
+//
+// Ranged threat is read from the current board; mutants killed along the
+// route are still counted as shooting, so estimates err on the safe side.
+public final class RouteSolver
+{
+    private static final int NONE = -1;
+    private static final int GOLD_POINTS = 10;
+    private static final int MUTANT_POINTS = 2;
+
+    // Window of the map being searched
+    private int originRow;
+    private int originCol;
+    private int windowRows;
+    private int windowCols;
+
+    // Per window tile
+    private int[] bestKey = new int[0];
+    private int[] previous = new int[0];
+    private byte[] previousMove = new byte[0];
+    private int[] visitedStamp = new int[0];  // == searchStamp when bestKey is valid
+    private int[] consumedStamp = new int[0]; // == queryStamp once the route so far cleared the tile
+    private int[] exitDistance = new int[0];
+    private int stamp; // source of both stamps, so stale marks never match
+    private int searchStamp;
+    private int queryStamp;
+
+    // Bucket queue; entries are pooled and reused
+    private int[] bucketHead = new int[0];
+    private int[] entryTile = new int[64];
+    private int[] entryNext = new int[64];
+    private int entries;
+
+    private int[] queue = new int[0];
+    private byte[] route = new byte[64];
+    private int routeLength;
+    private int routeScore;
+
+    // Shortest route to the exit that loses the least HP, or null when the
+    // exit cannot be reached alive within the moves left
+    public Route safestRoute(GameEngine engine)
+    {
+        GameState state = engine.getGameState();
+        int budget = state.getMovesLeft();
+        prepare(engine, budget);
+        GameState.Position player = state.getPlayerPosition();
+        int exit = search(engine, index(player.getRow(), player.getCol()), budget, state.getPlayerHP(), true);
+        if (exit == NONE)
+        {
+            return null;
+        }
+        int damage = bestKey[exit] / (budget + 1);
+        appendPath(engine, exit);
+        return new Route(Arrays.copyOf(route, routeLength), damage, routeScore);
+    }
+
+    // A route to the exit that picks up as many points as the moves and HP
+    // allow. Planning is greedy, taking the best points-per-move item that
+    // still leaves time to reach the exit, so it is fast but not always
+    // optimal. Falls back to the safest route when nothing is worth a detour.
+    public Route bestScoreRoute(GameEngine engine)
+    {
+        GameState state = engine.getGameState();
+        int budget = state.getMovesLeft();
+        prepare(engine, budget);
+        GameState.Position player = state.getPlayerPosition();
+        int position = index(player.getRow(), player.getCol());
+        int movesLeft = budget;
+        int hp = state.getPlayerHP();
+        int damage = 0;
+
+        // Walking distance from every tile to the exit bounds each detour
+        int exit = search(engine, position, movesLeft, hp, true);
+        if (exit == NONE)
+        {
+            return null;
+        }
+        distancesFrom(engine, exit);
+
+        while (true)
+        {
+            search(engine, position, movesLeft, hp, false);
+            int target = NONE;
+            long bestValue = 0;
+            for (int tile = 0; tile < bestKey.length; tile++)
+            {
+                if (visitedStamp[tile] != searchStamp || consumedStamp[tile] == queryStamp || tile == position)
+                {
+                    continue;
+                }
+                int points = pointsAt(engine, tile);
+                int steps = bestKey[tile] % (movesLeft + 1);
+                if (points == 0 || exitDistance[tile] == NONE || steps + exitDistance[tile] > movesLeft)
+                {
+                    continue;
+                }
+                // Points per step in millionths, less the path damage as a tie-break
+                long value = (long) points * 1_000_000 / steps - bestKey[tile] / (movesLeft + 1);
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    target = tile;
+                }
+            }
+            if (target == NONE)
+            {
+                break;
+            }
+            int steps = bestKey[target] % (movesLeft + 1);
+            int pathDamage = bestKey[target] / (movesLeft + 1);
+            appendPath(engine, target);
+            position = target;
+            movesLeft -= steps;
+            hp -= pathDamage;
+            damage += pathDamage;
+        }
+
+        int end = search(engine, position, movesLeft, hp, true);
+        if (end == NONE)
+        {
+            return safestRoute(engine);
+        }
+        damage += bestKey[end] / (movesLeft + 1);
+        appendPath(engine, end);
+        return new Route(Arrays.copyOf(route, routeLength), damage, routeScore);
+    }
+
+    // The first move of the best-scoring route, or null if there is none
+    public Direction hint(GameEngine engine)
+    {
+        Route route = bestScoreRoute(engine);
+        return route == null || route.length() == 0 ? null : route.getMove(0);
+    }
+
+    // Sizes the window around the player and the scratch arrays for it
+    private void prepare(GameEngine engine, int budget)
+    {
+        DungeonMap map = engine.getMap();
+        GameState.Position player = engine.getGameState().getPlayerPosition();
+        originRow = Math.max(0, player.getRow() - budget);
+        originCol = Math.max(0, player.getCol() - budget);
+        windowRows = (int) Math.min(map.getRows(), (long) player.getRow() + budget + 1) - originRow;
+        windowCols = (int) Math.min(map.getCols(), (long) player.getCol() + budget + 1) - originCol;
+        int tiles = windowRows * windowCols;
+        if (bestKey.length != tiles)
+        {
+            bestKey = new int[tiles];
+            previous = new int[tiles];
+            previousMove = new byte[tiles];
+            visitedStamp = new int[tiles];
+            consumedStamp = new int[tiles];
+            exitDistance = new int[tiles];
+            queue = new int[tiles];
+            stamp = 0;
+        }
+        queryStamp = nextStamp();
+        routeLength = 0;
+        routeScore = 0;
+        int buckets = (engine.getGameState().getPlayerHP() + 1) * (budget + 1);
+        if (bucketHead.length < buckets)
+        {
+            bucketHead = new int[buckets];
+        }
+    }
+
+    private int nextStamp()
+    {
+        if (stamp == Integer.MAX_VALUE)
+        {
+            Arrays.fill(visitedStamp, 0);
+            Arrays.fill(consumedStamp, 0);
+            stamp = 0;
+        }
+        return ++stamp;
+    }
+
+    private int index(int row, int col)
+    {
+        return (row - originRow) * windowCols + (col - originCol);
+    }
+
+    // Dijkstra from start keyed by damage * (budget + 1) + steps, never
+    // going past the budget or losing all HP. Tiles cleared by the route so
+    // far cost nothing but their ranged threat. With toExit, stops at and
+    // returns the first exit tile settled; otherwise settles everything but
+    // never walks through the exit, which would end the level.
+    private int search(GameEngine engine, int start, int budget, int hp, boolean toExit)
+    {
+        DungeonMap map = engine.getMap();
+        searchStamp = nextStamp();
+        int maxDamage = hp - 1;
+        int buckets = (maxDamage + 1) * (budget + 1);
+        Arrays.fill(bucketHead, 0, buckets, NONE);
+        entries = 0;
+        visitedStamp[start] = searchStamp;
+        bestKey[start] = 0;
+        previous[start] = NONE;
+        push(0, start);
+
+        for (int key = 0; key < buckets; key++)
+        {
+            while (bucketHead[key] != NONE)
+            {
+                int entry = bucketHead[key];
+                bucketHead[key] = entryNext[entry];
+                int tile = entryTile[entry];
+                if (bestKey[tile] != key)
+                {
+                    continue; // superseded by a cheaper entry
+                }
+                int row = tile / windowCols;
+                int col = tile % windowCols;
+                if (toExit && tile != start
+                        && map.getCode(row + originRow, col + originCol) == CellCodes.EXIT)
+                {
+                    return tile;
+                }
+                int steps = key % (budget + 1);
+                int damage = key / (budget + 1);
+                if (steps == budget)
+                {
+                    continue;
+                }
+                for (int code = 0; code < 4; code++)
+                {
+                    Direction direction = Direction.fromCode(code);
+                    int nextRow = row + direction.getRowDelta();
+                    int nextCol = col + direction.getColDelta();
+                    if (nextRow < 0 || nextRow >= windowRows || nextCol < 0 || nextCol >= windowCols)
+                    {
+                        continue;
+                    }
+                    int next = nextRow * windowCols + nextCol;
+                    int cellCode = map.getCode(nextRow + originRow, nextCol + originCol);
+                    if (CellCodes.blocksMovement(cellCode) || (!toExit && cellCode == CellCodes.EXIT))
+                    {
+                        continue;
+                    }
+                    int nextDamage = damage + damageAt(engine, next, cellCode);
+                    if (nextDamage > maxDamage)
+                    {
+                        continue;
+                    }
+                    int nextKey = nextDamage * (budget + 1) + steps + 1;
+                    if (visitedStamp[next] != searchStamp || nextKey < bestKey[next])
+                    {
+                        visitedStamp[next] = searchStamp;
+                        bestKey[next] = nextKey;
+                        previous[next] = tile;
+                        previousMove[next] = (byte) code;
+                        push(nextKey, next);
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private void push(int key, int tile)
+    {
+        if (entries == entryTile.length)
+        {
+            entryTile = Arrays.copyOf(entryTile, entries * 2);
+            entryNext = Arrays.copyOf(entryNext, entries * 2);
+        }
+        entryTile[entries] = tile;
+        entryNext[entries] = bucketHead[key];
+        bucketHead[key] = entries++;
+    }
+
+    private int damageAt(GameEngine engine, int tile, int cellCode)
+    {
+        int row = tile / windowCols + originRow;
+        int col = tile % windowCols + originCol;
+        // Each shooter hits half the time for 2 HP
+        int damage = engine.rangedThreatAt(row, col);
+        if (consumedStamp[tile] != queryStamp)
+        {
+            if (cellCode == CellCodes.TRAP)
+            {
+                damage += 1;
+            }
+            else if (cellCode == CellCodes.MELEE_MUTANT)
+            {
+                damage += 2;
+            }
+        }
+        return damage;
+    }
+
+    private int pointsAt(GameEngine engine, int tile)
+    {
+        int cellCode = engine.getMap().getCode(tile / windowCols + originRow, tile % windowCols + originCol);
+        if (cellCode == CellCodes.GOLD)
+        {
+            return GOLD_POINTS;
+        }
+        if (cellCode == CellCodes.MELEE_MUTANT || cellCode == CellCodes.RANGED_MUTANT)
+        {
+            return MUTANT_POINTS;
+        }
+        return 0;
+    }
+
+    // Plain BFS over open tiles from the exit, for the detour check
+    private void distancesFrom(GameEngine engine, int exit)
+    {
+        Arrays.fill(exitDistance, NONE);
+        int head = 0;
+        int tail = 0;
+        exitDistance[exit] = 0;
+        queue[tail++] = exit;
+        while (head < tail)
+        {
+            int tile = queue[head++];
+            int row = tile / windowCols;
+            int col = tile % windowCols;
+            for (int code = 0; code < 4; code++)
+            {
+                Direction direction = Direction.fromCode(code);
+                int nextRow = row + direction.getRowDelta();
+                int nextCol = col + direction.getColDelta();
+                if (nextRow < 0 || nextRow >= windowRows || nextCol < 0 || nextCol >= windowCols)
+                {
+                    continue;
+                }
+                int next = nextRow * windowCols + nextCol;
+                if (exitDistance[next] == NONE
+                        && !CellCodes.blocksMovement(engine.getMap().getCode(nextRow + originRow, nextCol + originCol)))
+                {
+                    exitDistance[next] = exitDistance[tile] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    // Appends the path found by the last search to the route, adding up the
+    // points on it and marking its tiles as cleared for later searches
+    private void appendPath(GameEngine engine, int target)
+    {
+        int steps = 0;
+        for (int tile = target; previous[tile] != NONE; tile = previous[tile])
+        {
+            steps++;
+        }
+        if (routeLength + steps > route.length)
+        {
+            route = Arrays.copyOf(route, Math.max(route.length * 2, routeLength + steps));
+        }
+        int tile = target;
+        for (int i = routeLength + steps - 1; i >= routeLength; i--)
+        {
+            route[i] = previousMove[tile];
+            if (consumedStamp[tile] != queryStamp)
+            {
+                routeScore += pointsAt(engine, tile);
+                consumedStamp[tile] = queryStamp;
+            }
+            tile = previous[tile];
+        }
+        routeLength += steps;
+    }
+}
@@ -0,0 +1,403 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Versioned binary save file holding the complete game: state, the exact
+// level and where the random streams stand, so a loaded game continues
+// exactly as the saved one would have.
+//
+// Layout (big-endian):
+//   magic "MDSV", version
+//   state     seed, rows, difficulty, levels generated, combat rolls,
+//             level, HP, score, moves left, player and last exit position, flags
+//   palette   cell type names; codes below index into it, so reordering or
+//             adding cell classes does not break old saves
+//   terrain   2 bits per tile: floor, wall, entry or exit
+//   entities  (code, row, col) for every item, monster and the player
+//   resting   (row, col, rest timer) for monsters that may not act yet
+//   replay    move count and the 2-bit packed moves
+//   CRC32 of everything before it
+public final class SaveFile
+{
+    private static final int MAGIC = 0x4D445356; // "MDSV"
+    private static final short VERSION = 1;
+    // Larger saves are memory-mapped rather than copied onto the heap
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    // Terrain codes are the first four palette entries
+    private static final String[] PALETTE = {
+            "EMPTY", "WALL", "ENTRY", "EXIT",
+            "GOLD", "HEALTH_POTION", "TRAP", "MELEE_MUTANT", "RANGED_MUTANT", "PLAYER",
+    };
+    private static final int TERRAIN_TYPES = 4;
+    // Palette index of each CellCodes code, or -1 for types never saved
+    private static final int[] PALETTE_INDEX = new int[CellCodes.count()];
+
+    static
+    {
+        for (int code = 0; code < PALETTE_INDEX.length; code++)
+        {
+            PALETTE_INDEX[code] = Arrays.asList(PALETTE).indexOf(CellCodes.typeName(code));
+        }
+    }
+
+    private SaveFile()
+    {
+    }
+
+    public static void write(GameEngine engine, Path file) throws IOException
+    {
+        if (engine.isStreamed())
+        {
+            throw new IOException("Streamed games cannot be saved");
+        }
+        DungeonMap map = engine.getMap();
+        int rows = map.getRows();
+        int cols = map.getCols();
+
+        int entities = 0;
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                if (codeOf(map.getCode(row, col)) >= TERRAIN_TYPES)
+                {
+                    entities++;
+                }
+            }
+        }
+
+        byte[][] names = new byte[PALETTE.length][];
+        int paletteBytes = 1;
+        for (int i = 0; i < PALETTE.length; i++)
+        {
+            names[i] = PALETTE[i].getBytes(StandardCharsets.US_ASCII);
+            paletteBytes += 1 + names[i].length;
+        }
+        long terrainBytes = ((long) rows * cols + 3) / 4;
+        EntityStore monsters = engine.getMonsters();
+        int movesLeft = engine.getGameState().getMovesLeft();
+        int resting = 0;
+        for (int slot = 0; slot < monsters.size(); slot++)
+        {
+            if (monsters.isResting(slot, movesLeft))
+            {
+                resting++;
+            }
+        }
+
+        byte[] moves = engine.getReplay().packedMoves();
+        long total = 6 + 8 + 3 * 4 + 8 + 4 * 8 + 1
+                + paletteBytes
+                + 8 + terrainBytes
+                + 4 + 9L * entities
+                + 4 + 12L * resting
+                + 4 + moves.length
+                + 4;
+        if (total > Integer.MAX_VALUE)
+        {
+            throw new IOException("Map too large to save: " + rows + "x" + cols);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total);
+        buffer.putInt(MAGIC).putShort(VERSION);
+
+        GameState state = engine.getGameState();
+        GameState.Position player = state.getPlayerPosition();
+        GameState.Position lastExit = engine.getLastExitPosition();
+        buffer.putLong(engine.getSeed())
+                .putInt(rows)
+                .putInt(state.getDifficultyLevel())
+                .putInt(engine.getLevelsGenerated())
+                .putLong(engine.getCombatRolls())
+                .putInt(state.getCurrentLevel())
+                .putInt(state.getPlayerHP())
+                .putInt(state.getScore())
+                .putInt(state.getMovesLeft())
+                .putInt(player.getRow())
+                .putInt(player.getCol())
+                .putInt(lastExit.getRow())
+                .putInt(lastExit.getCol())
+                .put((byte) ((engine.isGameCompleted() ? 1 : 0) | (engine.isGameWon() ? 2 : 0)));
+
+        buffer.put((byte) PALETTE.length);
+        for (byte[] name : names)
+        {
+            buffer.put((byte) name.length).put(name);
+        }
+
+        buffer.putInt(rows).putInt(cols);
+        int packed = 0;
+        int index = 0;
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                int code = codeOf(map.getCode(row, col));
+                int terrain = code < TERRAIN_TYPES ? code : 0; // entities stand on floor
+                packed |= terrain << ((index & 3) * 2);
+                if ((++index & 3) == 0)
+                {
+                    buffer.put((byte) packed);
+                    packed = 0;
+                }
+            }
+        }
+        if ((index & 3) != 0)
+        {
+            buffer.put((byte) packed);
+        }
+
+        buffer.putInt(entities);
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                int code = codeOf(map.getCode(row, col));
+                if (code >= TERRAIN_TYPES)
+                {
+                    buffer.put((byte) code).putInt(row).putInt(col);
+                }
+            }
+        }
+
+        buffer.putInt(resting);
+        for (int slot = 0; slot < monsters.size(); slot++)
+        {
+            if (monsters.isResting(slot, movesLeft))
+            {
+                buffer.putInt(monsters.row(slot)).putInt(monsters.col(slot)).putInt(monsters.restUntil(slot));
+            }
+        }
+
+        buffer.putInt(engine.getReplay().getMoveCount()).put(moves);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        // Write beside the target and move it into place, so a crash while
+        // saving never leaves a half-written save behind
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static GameEngine read(Path file) throws IOException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long length = channel.size();
+            if (length < 10 || length > Integer.MAX_VALUE)
+            {
+                throw new IOException("Not a MiniDungeon save file");
+            }
+            if (length >= MAP_THRESHOLD)
+            {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+            else
+            {
+                buffer = ByteBuffer.allocate((int) length);
+                while (buffer.hasRemaining())
+                {
+                    if (channel.read(buffer) < 0)
+                    {
+                        throw new IOException("Unexpected end of save file");
+                    }
+                }
+                buffer.flip();
+            }
+        }
+
+        try
+        {
+            return decode(buffer);
+        }
+        catch (RuntimeException e) // anything the field checks in decode missed
+        {
+            throw new IOException("Save file is corrupt", e);
+        }
+    }
+
+    private static GameEngine decode(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.getInt() != MAGIC)
+        {
+            throw new IOException("Not a MiniDungeon save file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported save version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.position(0).limit(buffer.limit() - 4);
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4))
+        {
+            throw new IOException("Save file is corrupt (checksum mismatch)");
+        }
+
+        long seed = buffer.getLong();
+        int headerRows = buffer.getInt();
+        int difficultyLevel = buffer.getInt();
+        int levelsGenerated = buffer.getInt();
+        long combatRolls = buffer.getLong();
+        int currentLevel = buffer.getInt();
+        int playerHP = buffer.getInt();
+        int score = buffer.getInt();
+        int movesLeft = buffer.getInt();
+        GameState.Position player = new GameState.Position(buffer.getInt(), buffer.getInt());
+        GameState.Position lastExit = new GameState.Position(buffer.getInt(), buffer.getInt());
+        int flags = buffer.get();
+        if (levelsGenerated < 0 || combatRolls < 0)
+        {
+            throw new IOException("Save file is corrupt (negative random draw count)");
+        }
+        // The engine only has levels 1 and 2; HP and moves stop at zero
+        if (currentLevel < 1 || currentLevel > 2)
+        {
+            throw new IOException("Save file is corrupt (level " + currentLevel + ")");
+        }
+        if (playerHP < 0 || movesLeft < 0 || score < 0)
+        {
+            throw new IOException("Save file is corrupt (HP " + playerHP + ", moves " + movesLeft
+                    + ", score " + score + ")");
+        }
+
+        byte[] palette = new byte[buffer.get() & 0xFF]; // palette index -> CellCodes code
+        for (int i = 0; i < palette.length; i++)
+        {
+            byte[] name = new byte[buffer.get() & 0xFF];
+            buffer.get(name);
+            // Not CellFactory.createCell, which reads unknown names as floor
+            String typeName = new String(name, StandardCharsets.US_ASCII);
+            int code = CellCodes.forTypeName(typeName);
+            if (code < 0)
+            {
+                throw new IOException("Save file has unknown cell type " + typeName);
+            }
+            palette[i] = (byte) code;
+        }
+        if (palette.length < TERRAIN_TYPES)
+        {
+            throw new IOException("Save file is corrupt (" + palette.length + " palette entries)");
+        }
+
+        int rows = buffer.getInt();
+        int cols = buffer.getInt();
+        if (rows != headerRows || rows <= 0 || cols <= 0 || (long) rows * cols > 4L * buffer.remaining())
+        {
+            throw new IOException("Save file is corrupt (map is " + rows + "x" + cols + ")");
+        }
+        checkPosition("player", player.getRow(), player.getCol(), rows, cols);
+        checkPosition("last exit", lastExit.getRow(), lastExit.getCol(), rows, cols);
+        byte[] cells = new byte[Math.multiplyExact(rows, cols)];
+        int packed = 0;
+        for (int i = 0; i < cells.length; i++)
+        {
+            if ((i & 3) == 0)
+            {
+                packed = buffer.get();
+            }
+            cells[i] = palette[(packed >>> ((i & 3) * 2)) & 3];
+        }
+
+        int entities = buffer.getInt();
+        if (entities < 0 || entities > buffer.remaining() / 9)
+        {
+            throw new IOException("Save file is corrupt (" + entities + " entities)");
+        }
+        for (int i = 0; i < entities; i++)
+        {
+            int index = buffer.get() & 0xFF;
+            int row = buffer.getInt();
+            int col = buffer.getInt();
+            if (index >= palette.length)
+            {
+                throw new IOException("Save file is corrupt (palette index " + index + ")");
+            }
+            checkPosition("entity", row, col, rows, cols);
+            cells[row * cols + col] = palette[index];
+        }
+        if (cells[player.getRow() * cols + player.getCol()] != CellCodes.PLAYER)
+        {
+            throw new IOException("Save file is corrupt (no player at " + player.getRow() + "," + player.getCol() + ")");
+        }
+
+        int restingCount = buffer.getInt();
+        if (restingCount < 0 || restingCount > buffer.remaining() / 12)
+        {
+            throw new IOException("Save file is corrupt (" + restingCount + " resting monsters)");
+        }
+        int[] resting = new int[restingCount * 3];
+        for (int i = 0; i < resting.length; i++)
+        {
+            resting[i] = buffer.getInt();
+        }
+        for (int i = 0; i < resting.length; i += 3)
+        {
+            checkPosition("resting monster", resting[i], resting[i + 1], rows, cols);
+        }
+
+        int moveCount = buffer.getInt();
+        // Four moves per byte, and the checksum still to come
+        if (moveCount < 0 || (moveCount + 3L) / 4 > buffer.remaining() - 4)
+        {
+            throw new IOException("Save file is corrupt (" + moveCount + " moves)");
+        }
+        byte[] moves = new byte[Math.max(32, (moveCount + 3) >>> 2)];
+        buffer.get(moves, 0, (moveCount + 3) >>> 2);
+        Replay replay = new Replay(seed, rows, cols, difficultyLevel, moves, moveCount);
+
+        GameState state = new GameState(difficultyLevel, currentLevel, playerHP, score, movesLeft, player);
+        GameEngine engine = new GameEngine(seed, state, new ArrayMap(rows, cols, cells), lastExit,
+                levelsGenerated, combatRolls, (flags & 1) != 0, (flags & 2) != 0, replay);
+        for (int i = 0; i < resting.length; i += 3)
+        {
+            engine.getMonsters().setRestUntil(resting[i], resting[i + 1], resting[i + 2]);
+        }
+        return engine;
+    }
+
+    private static void checkPosition(String what, int row, int col, int rows, int cols) throws IOException
+    {
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+        {
+            throw new IOException("Save file is corrupt (" + what + " at " + row + "," + col + ")");
+        }
+    }
+
+    // The palette index of a CellCodes code
+    private static int codeOf(int cellCode)
+    {
+        int index = PALETTE_INDEX[cellCode];
+        if (index < 0)
+        {
+            throw new IllegalArgumentException("Cannot save cell type " + CellCodes.typeName(cellCode));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,132 @@
+package dungeon.engine;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+// Plays complete games headlessly across all cores using the common
+// fork-join pool. Each game's engine seed and policy stream are derived
+// from the run seed and game index, so results do not depend on scheduling
+// and any single game can be replayed from its reported seed.
+public class SimulationRunner
+{
+    // Blocked moves do not use up the move budget, so a policy that keeps
+    // walking into walls would never finish without this cap
+    private static final int MAX_ATTEMPTS_PER_GAME = 10_000;
+
+    private final int size;
+    private final int difficultyLevel;
+    private final LevelParameters parameters;
+    private final MovePolicy policy;
+    private final long seed;
+
+    public SimulationRunner(int size, int difficultyLevel, MovePolicy policy, long seed)
+    {
+        this(size, difficultyLevel, LevelParameters.forDifficulty(difficultyLevel), policy, seed);
+    }
+
+    // Plays levels with the given densities, for DifficultyCalibrator
+    SimulationRunner(int size, int difficultyLevel, LevelParameters parameters, MovePolicy policy, long seed)
+    {
+        this.size = size;
+        this.difficultyLevel = difficultyLevel;
+        this.parameters = parameters;
+        this.policy = policy;
+        this.seed = seed;
+    }
+
+    public GameResult playGame(long gameIndex)
+    {
+        SplittableRandom random = new SplittableRandom(seed + gameIndex);
+        long gameSeed = random.nextLong();
+        GameEngine engine = new GameEngine(size, difficultyLevel, gameSeed, parameters);
+        engine.setUndoDepth(0); // nothing is ever taken back
+        engine.setFogOfWar(false); // nor drawn
+
+        int attempts = 0;
+        while (!engine.isGameCompleted() && attempts < MAX_ATTEMPTS_PER_GAME)
+        {
+            engine.movePlayer(policy.nextMove(engine, random));
+            attempts++;
+        }
+
+        GameState state = engine.getGameState();
+        GameResult.Outcome outcome;
+        if (engine.isGameWon())
+        {
+            outcome = GameResult.Outcome.ESCAPED;
+        }
+        else if (state.getPlayerHP() <= 0)
+        {
+            outcome = GameResult.Outcome.KILLED;
+        }
+        else if (state.getMovesLeft() <= 0)
+        {
+            outcome = GameResult.Outcome.OUT_OF_MOVES;
+        }
+        else
+        {
+            outcome = GameResult.Outcome.STALLED;
+        }
+        return new GameResult(gameIndex, gameSeed, state.getScore(), state.getPlayerHP(),
+                state.getMovesLeft(), state.getCurrentLevel(), outcome);
+    }
+
+    // Streams each result to the sink as soon as its game finishes.
+    // The sink is called concurrently and must be thread-safe.
+    public void run(long games, Consumer<GameResult> sink)
+    {
+        LongStream.range(0, games).parallel()
+                .mapToObj(this::playGame)
+                .forEach(sink);
+    }
+
+    // Collects all results, ordered by game index
+    public List<GameResult> run(int games)
+    {
+        return LongStream.range(0, games).parallel()
+                .mapToObj(this::playGame)
+                .toList();
+    }
+
+    // Usage: SimulationRunner [games] [size] [difficulty] [seed]
+    public static void main(String[] args)
+    {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        SimulationRunner runner = new SimulationRunner(size, difficulty, MovePolicy.randomWalk(), seed);
+        Map<GameResult.Outcome, Long> outcomes = new EnumMap<>(GameResult.Outcome.class);
+        long[] totals = new long[3]; // score, hp, level
+
+        long start = System.nanoTime();
+        runner.run(games, result -> {
+            synchronized (totals)
+            {
+                outcomes.merge(result.outcome(), 1L, Long::sum);
+                totals[0] += result.score();
+                totals[1] += result.playerHP();
+                totals[2] += result.levelReached();
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Played %d games in %.2fs (%.0f games/s) on %d cores%n",
+                games, seconds, games / seconds, Runtime.getRuntime().availableProcessors());
+        System.out.printf("Average score %.2f | HP %.2f | level %.2f%n",
+                (double) totals[0] / games, (double) totals[1] / games, (double) totals[2] / games);
+        for (Map.Entry<GameResult.Outcome, Long> entry : outcomes.entrySet())
+        {
+            System.out.printf("%-13s %6.2f%%%n", entry.getKey(), 100.0 * entry.getValue() / games);
+        }
+        if (Boolean.getBoolean(EngineMetrics.ENABLE_PROPERTY))
+        {
+            System.out.print(EngineMetrics.shared().snapshot().format());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dungeon.engine;
+
+// Draws the board for TextUI. Implementations build each frame in a
+// reusable byte buffer and hand it to the stream in a single write.
+interface TextRenderer
+{
+    // Called once, before the welcome text
+    default void begin(GameEngine engine)
+    {
+    }
+
+    // Called before the output of each command
+    default void beginCommand()
+    {
+    }
+
+    void render(GameEngine engine);
+
+    // What the player knows of a cell: blank until explored, and no
+    // monsters once out of sight
+    static byte symbolAt(GameEngine engine, int row, int col)
+    {
+        Cell cell = engine.getRevealedCell(row, col);
+        return cell == null ? (byte) ' ' : symbolFor(cell);
+    }
+
+    static byte symbolFor(Cell cell)
+    {
+        return CellCodes.symbol(cell.getCode());
+    }
+}
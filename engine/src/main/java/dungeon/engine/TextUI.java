@@ -0,0 +1,227 @@
+package dungeon.engine;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+import java.util.List;
+
+public class TextUI
+{
+    private GameEngine engine;
+    private Scanner scanner;
+    private final PrintStream out;
+    private final TextRenderer renderer;
+    private final RouteSolver solver = new RouteSolver();
+    private boolean isRunning;
+
+    public TextUI(GameEngine engine)
+    {
+        this(engine, System.in, System.out, useAnsi(engine.getRows()));
+    }
+
+    // Plays over any pair of streams, e.g. a GameServer connection
+    public TextUI(GameEngine engine, InputStream in, PrintStream out)
+    {
+        this(engine, in, out, false);
+    }
+
+    // ansi redraws only changed tiles in place; otherwise the whole board is
+    // printed after each command
+    public TextUI(GameEngine engine, InputStream in, PrintStream out, boolean ansi)
+    {
+        this.engine = engine;
+        this.scanner = new Scanner(in);
+        this.out = out;
+        this.renderer = ansi ? new AnsiTextRenderer(out) : new PlainTextRenderer(out);
+        this.isRunning = true;
+        engine.setEventSink(new ConsoleEventSink(out));
+    }
+
+    // -Ddungeon.ansi=true|false forces a renderer. Otherwise use ANSI on an
+    // interactive terminal that supports it, if the board fits on screen.
+    private static boolean useAnsi(int mapRows)
+    {
+        String choice = System.getProperty("dungeon.ansi", "auto");
+        if (!choice.equals("auto"))
+        {
+            return Boolean.parseBoolean(choice);
+        }
+        String term = System.getenv("TERM");
+        if (System.console() == null || term == null || term.equals("dumb"))
+        {
+            return false;
+        }
+        int rows = 24;
+        try
+        {
+            rows = Integer.parseInt(System.getenv().getOrDefault("LINES", "24"));
+        }
+        catch (NumberFormatException e)
+        {
+            // keep the classic terminal height
+        }
+        return mapRows + 12 <= rows;
+    }
+
+    public void start()
+    {
+        renderer.begin(engine);
+        printWelcome();
+        displayGrid();
+        gameLoop();
+    }
+
+    private void printWelcome()
+    {
+        out.println("Welcome to MiniDungeon!");
+        out.println("Move with UP, DOWN, LEFT, RIGHT");
+        out.println("Type HELP for commands, QUIT to exit");
+        out.println("----------------------------------------");
+    }
+
+    private void gameLoop()
+    {
+        while (isRunning)
+        {
+            out.print("Enter command (UP/DOWN/LEFT/RIGHT/HELP/QUIT): ");
+            out.flush();
+            if (!scanner.hasNextLine())
+            {
+                break; // input closed
+            }
+            String command = scanner.nextLine().trim().toUpperCase();
+            processCommand(command);
+        }
+        out.flush();
+        scanner.close();
+    }
+
+    private void displayGrid()
+    {
+        renderer.render(engine);
+    }
+
+
+    private void processCommand(String command) {
+        renderer.beginCommand();
+
+        // First check if game is completed
+        if (engine.isGameCompleted()) {
+            displayEndGame();
+            isRunning = false;
+            return;
+        }
+
+        switch (command) {
+            case "UP", "DOWN", "LEFT", "RIGHT" -> {
+                if (engine.movePlayer(command)) {
+                    out.println("Moving " + command.toLowerCase());
+                } else {
+                    out.println("Cannot move " + command.toLowerCase());
+                }
+            }
+            case "UNDO" -> {
+                if (!engine.undo()) {
+                    out.println("Nothing to undo");
+                }
+            }
+            case "REDO" -> {
+                if (!engine.redo()) {
+                    out.println("Nothing to redo");
+                }
+            }
+            case "HINT" -> printHint();
+            case "HELP" -> printHelp();
+            case "QUIT" -> {
+                isRunning = false;
+                out.println("Thanks for playing!");
+                return; //Don't display map after quitting
+            }
+            default -> out.println("Unknown command. Type HELP for commands.");
+        }
+
+        // After processing command, check if game completed
+        if (engine.isGameCompleted()) {
+            displayEndGame();
+            isRunning = false;
+            return;
+        }
+
+        displayGrid();
+        displayGameState();
+    }
+
+    private void displayGameState() {
+        EngineSnapshot state = engine.getSnapshot();
+        out.println("\n=== LEVEL " + state.level() + " ===");
+        out.println("HP: " + state.playerHP() +
+                " | Score: " + state.score() +
+                " | Moves left: " + state.movesLeft());
+    }
+
+    private void displayEndGame() {
+        EngineSnapshot state = engine.getSnapshot();
+        int finalScore = state.score();
+        
+        out.println("\n=========================");
+        out.println("    GAME COMPLETED!");
+        out.println("=========================");
+        out.println("Final Score: " + finalScore);
+        out.println("HP Remaining: " + state.playerHP());
+        out.println("Moves Remaining: " + state.movesLeft());
+        
+        HighScoreManager hsm = engine.getHighScoreManager();
+        
+        int difficulty = state.difficultyLevel();
+        if (hsm.isHighScore(finalScore, difficulty)) {
+            out.println("\n🎉 CONGRATULATIONS! You achieved a high score! 🎉");
+            out.print("Enter your name: ");
+            out.flush();
+            if (scanner.hasNextLine()) {
+                hsm.addScore(scanner.nextLine(), finalScore, difficulty);
+            }
+        }
+        
+        // Display high scores
+        out.println("\n=== HIGH SCORES (difficulty " + difficulty + ") ===");
+        List<HighScoreManager.ScoreEntry> highScores = hsm.getHighScores(difficulty);
+        if (highScores.isEmpty()) {
+            out.println("No high scores yet!");
+        } else {
+            for (int i = 0; i < highScores.size(); i++) {
+                HighScoreManager.ScoreEntry entry = highScores.get(i);
+                out.printf("%d. %-15s %5d  (%s)%n",
+                    i + 1,
+                    entry.getPlayerName(),
+                    entry.getScore(),
+                    entry.getDate());
+            }
+        }
+        
+        out.println("=========================");
+        out.println("Thank you for playing!");
+        out.println("=========================\n");
+    }
+
+    private void printHint() {
+        Route route = solver.bestScoreRoute(engine);
+        if (route == null || route.length() == 0) {
+            out.println("No safe route to the exit within your remaining moves.");
+            return;
+        }
+        out.println("Hint: move " + route.getMove(0).name().toLowerCase()
+                + " (" + route.length() + " moves to the exit, +" + route.score() + " points on the way)");
+    }
+
+    private void printHelp() {
+        out.println("\nAvailable commands:");
+        out.println("UP     - Move up");
+        out.println("DOWN   - Move down");
+        out.println("LEFT   - Move left");
+        out.println("RIGHT  - Move right");
+        out.println("UNDO   - Take back the last move");
+        out.println("REDO   - Make an undone move again");
+        out.println("HINT   - Suggest the next move");
+        out.println("HELP   - Show this help");
+        out.println("QUIT   - Exit the game\n");
+    }
+}
\ No newline at end of file
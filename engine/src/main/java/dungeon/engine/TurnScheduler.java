@@ -0,0 +1,191 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Gives the monsters of an EntityStore their turn after each player move.
+// Melee mutants within CHASE_RADIUS steps of the player close in one tile
+// at a time, resting REST_TURNS turns after each step, and fight the player
+// once next to them. Everything else holds its ground; ranged mutants shoot
+// through the threat index as before. On crowded levels only the store
+// blocks within CHASE_RADIUS of the player are visited, so a turn costs as
+// much as the monsters near the player, however many the level holds.
+//
+// A turn is planned against the map as it stood when the turn began and
+// then carried out, and two monsters after the same tile are settled by
+// position, so the result never depends on slot order. Undo, save files
+// and chunk reloads all reorder slots; the game must play out the same.
+final class TurnScheduler
+{
+    static final int CHASE_RADIUS = 6;
+    static final int REST_TURNS = 1;
+
+    private static final byte STAY = 0;
+    private static final byte STEP = 1;
+    private static final byte FIGHT = 2;
+
+    // What a monster's turn can do to the game
+    interface World
+    {
+        // Whether a monster may step onto the cell
+        boolean isOpen(int row, int col);
+
+        void moveMonster(int fromRow, int fromCol, int toRow, int toCol);
+
+        // The monster on the cell fights the player
+        void fight(int row, int col);
+    }
+
+    // Plans for this turn, one per acting monster; reused between turns and
+    // allocated by the first monster to act
+    private int[] actors = new int[0];
+    private byte[] plans = new byte[0];
+    private int[] targetRows = new int[0];
+    private int[] targetCols = new int[0];
+    private LongIntHashMap claims; // target cell -> plan index + 1
+
+    void advance(EntityStore entities, int playerRow, int playerCol, int movesLeft, World world)
+    {
+        if (claims != null && claims.size() > 0)
+        {
+            claims.clear();
+        }
+        int planned = 0;
+        if (!entities.hasBlocks())
+        {
+            for (int slot = 0; slot < entities.size(); slot++)
+            {
+                planned = plan(entities, slot, playerRow, playerCol, movesLeft, world, planned);
+            }
+        }
+        else
+        {
+            int firstBlockRow = (playerRow - CHASE_RADIUS) >> EntityStore.BLOCK_BITS;
+            int lastBlockRow = (playerRow + CHASE_RADIUS) >> EntityStore.BLOCK_BITS;
+            int firstBlockCol = (playerCol - CHASE_RADIUS) >> EntityStore.BLOCK_BITS;
+            int lastBlockCol = (playerCol + CHASE_RADIUS) >> EntityStore.BLOCK_BITS;
+            for (int blockRow = firstBlockRow; blockRow <= lastBlockRow; blockRow++)
+            {
+                for (int blockCol = firstBlockCol; blockCol <= lastBlockCol; blockCol++)
+                {
+                    int slot = entities.firstInBlock(blockRow, blockCol);
+                    for (; slot >= 0; slot = entities.nextInBlock(slot))
+                    {
+                        planned = plan(entities, slot, playerRow, playerCol, movesLeft, world, planned);
+                    }
+                }
+            }
+        }
+
+        // Steps keep slots in place; fights remove monsters and move slots
+        // around, so they go last and find their monster by position
+        for (int i = 0; i < planned; i++)
+        {
+            if (plans[i] == STEP)
+            {
+                int slot = actors[i];
+                world.moveMonster(entities.row(slot), entities.col(slot), targetRows[i], targetCols[i]);
+                entities.move(slot, targetRows[i], targetCols[i], movesLeft - 1 - REST_TURNS);
+            }
+        }
+        for (int i = 0; i < planned; i++)
+        {
+            if (plans[i] == FIGHT)
+            {
+                world.fight(targetRows[i], targetCols[i]);
+            }
+        }
+    }
+
+    // Adds the plan of one monster, if it acts; returns the new plan count
+    private int plan(EntityStore entities, int slot, int playerRow, int playerCol, int movesLeft, World world,
+                     int planned)
+    {
+        if (entities.type(slot) != EntityStore.MELEE)
+        {
+            return planned;
+        }
+        int row = entities.row(slot);
+        int col = entities.col(slot);
+        int rowGap = playerRow - row;
+        int colGap = playerCol - col;
+        int distance = Math.abs(rowGap) + Math.abs(colGap);
+        if (distance > CHASE_RADIUS || entities.isResting(slot, movesLeft))
+        {
+            return planned;
+        }
+        if (planned == actors.length)
+        {
+            grow();
+        }
+        if (distance == 1)
+        {
+            actors[planned] = slot;
+            plans[planned] = FIGHT;
+            targetRows[planned] = row;
+            targetCols[planned] = col;
+            return planned + 1;
+        }
+
+        // Close the longer gap first; try the other axis if that is blocked
+        int stepRow = Integer.signum(rowGap);
+        int stepCol = Integer.signum(colGap);
+        int toRow;
+        int toCol;
+        if (Math.abs(rowGap) >= Math.abs(colGap))
+        {
+            toRow = row + stepRow;
+            toCol = col;
+            if (!world.isOpen(toRow, toCol))
+            {
+                toRow = row;
+                toCol = col + stepCol;
+            }
+        }
+        else
+        {
+            toRow = row;
+            toCol = col + stepCol;
+            if (!world.isOpen(toRow, toCol))
+            {
+                toRow = row + stepRow;
+                toCol = col;
+            }
+        }
+        if ((toRow == row && toCol == col) || !world.isOpen(toRow, toCol))
+        {
+            return planned;
+        }
+
+        if (claims == null)
+        {
+            claims = new LongIntHashMap();
+        }
+        long target = RangedThreatIndex.key(toRow, toCol);
+        int rival = claims.get(target) - 1;
+        if (rival >= 0)
+        {
+            int rivalSlot = actors[rival];
+            if (Long.compare(RangedThreatIndex.key(entities.row(rivalSlot), entities.col(rivalSlot)),
+                    RangedThreatIndex.key(row, col)) < 0)
+            {
+                return planned;
+            }
+            plans[rival] = STAY;
+        }
+        claims.put(target, planned + 1);
+        actors[planned] = slot;
+        plans[planned] = STEP;
+        targetRows[planned] = toRow;
+        targetCols[planned] = toCol;
+        return planned + 1;
+    }
+
+    private void grow()
+    {
+        int capacity = Math.max(16, actors.length * 2);
+        actors = Arrays.copyOf(actors, capacity);
+        plans = Arrays.copyOf(plans, capacity);
+        targetRows = Arrays.copyOf(targetRows, capacity);
+        targetCols = Arrays.copyOf(targetCols, capacity);
+    }
+}
@@ -0,0 +1,340 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+// Bounded undo history for GameEngine. Each accepted move keeps the game
+// state it started from plus the old value of every cell it wrote, so an
+// undo costs as much as the move did, never a copy of the map. A move that
+// finished a level also keeps the previous level's map, which is never
+// written again once replaced. When the ring is full the oldest move is
+// forgotten. Redo re-plays undone moves through the engine, which is exact
+// because undo also rewinds the random streams.
+//
+// Entries and cell deltas live in primitive rings, so recording allocates
+// nothing once the rings have grown to fit a typical move. Monster rest
+// timers, which the map cannot hold, ride along in the cell delta ring.
+final class UndoJournal
+{
+    static final int DEFAULT_DEPTH = 100;
+
+    private static final byte COMPLETED = 1;
+    private static final byte WON = 2;
+    private static final byte REST_DELTA = -1; // in deltaCells: deltaValues holds a rest timer
+
+    private int depth;
+    private int slots; // depth + 1, so a move can be recorded before evicting
+
+    // Entry ring: count entries ending just before next
+    private byte[] directions;
+    private int[] levels;
+    private int[] playerHPs;
+    private int[] scores;
+    private int[] movesLeft;
+    private int[] playerRows;
+    private int[] playerCols;
+    private int[] lastExitRows;
+    private int[] lastExitCols;
+    private byte[] flags;
+    private int[] levelsGenerated;
+    private long[] combatRolls;
+    private long[] firstDeltas;   // absolute index of the entry's first cell delta
+    private long[] levelSwitches; // deltas from here on were made on the new level
+    private DungeonMap[] previousLevels;
+    private FieldOfView[] previousViews; // what the player had seen of it
+    private int next;
+    private int count;
+
+    // Cell delta ring, indexed by absolute position modulo its length
+    private int[] deltaRows;
+    private int[] deltaCols;
+    private byte[] deltaCells;
+    private int[] deltaValues;
+    private long deltaStart;
+    private long deltaEnd;
+
+    private byte[] redoMoves;
+    private int redoCount;
+
+    private boolean recording;
+
+    UndoJournal(int depth)
+    {
+        setDepth(depth);
+    }
+
+    int getDepth()
+    {
+        return depth;
+    }
+
+    // Resizing forgets all history. The rings are allocated by the first
+    // move, so engines that never move cost nothing here.
+    void setDepth(int depth)
+    {
+        if (depth < 0)
+        {
+            throw new IllegalArgumentException("Undo depth must not be negative: " + depth);
+        }
+        this.depth = depth;
+        slots = depth + 1;
+        directions = null;
+        previousLevels = null;
+        previousViews = null;
+        clear();
+    }
+
+    private void allocate()
+    {
+        directions = new byte[slots];
+        levels = new int[slots];
+        playerHPs = new int[slots];
+        scores = new int[slots];
+        movesLeft = new int[slots];
+        playerRows = new int[slots];
+        playerCols = new int[slots];
+        lastExitRows = new int[slots];
+        lastExitCols = new int[slots];
+        flags = new byte[slots];
+        levelsGenerated = new int[slots];
+        combatRolls = new long[slots];
+        firstDeltas = new long[slots];
+        levelSwitches = new long[slots];
+        previousLevels = new DungeonMap[slots];
+        previousViews = new FieldOfView[slots];
+        redoMoves = new byte[depth];
+        deltaRows = new int[64];
+        deltaCols = new int[64];
+        deltaCells = new byte[64];
+        deltaValues = new int[64];
+    }
+
+    void clear()
+    {
+        if (previousLevels != null)
+        {
+            Arrays.fill(previousLevels, null);
+            Arrays.fill(previousViews, null);
+        }
+        next = 0;
+        count = 0;
+        deltaStart = deltaEnd;
+        redoCount = 0;
+        recording = false;
+    }
+
+    boolean isRecording()
+    {
+        return recording;
+    }
+
+    boolean canUndo()
+    {
+        return count > 0;
+    }
+
+    boolean canRedo()
+    {
+        return redoCount > 0;
+    }
+
+    // Starts an entry from the state before a move; it is kept by commit or
+    // dropped by abort
+    void begin(GameState state, GameState.Position lastExit, boolean gameCompleted, boolean gameWon,
+               int levelsGenerated, long combatRolls)
+    {
+        if (depth == 0)
+        {
+            return;
+        }
+        if (directions == null)
+        {
+            allocate();
+        }
+        int entry = next;
+        levels[entry] = state.getCurrentLevel();
+        playerHPs[entry] = state.getPlayerHP();
+        scores[entry] = state.getScore();
+        movesLeft[entry] = state.getMovesLeft();
+        playerRows[entry] = state.getPlayerPosition().getRow();
+        playerCols[entry] = state.getPlayerPosition().getCol();
+        lastExitRows[entry] = lastExit == null ? -1 : lastExit.getRow();
+        lastExitCols[entry] = lastExit == null ? -1 : lastExit.getCol();
+        flags[entry] = (byte) ((gameCompleted ? COMPLETED : 0) | (gameWon ? WON : 0));
+        this.levelsGenerated[entry] = levelsGenerated;
+        this.combatRolls[entry] = combatRolls;
+        firstDeltas[entry] = deltaEnd;
+        levelSwitches[entry] = -1;
+        previousLevels[entry] = null;
+        previousViews[entry] = null;
+        recording = true;
+    }
+
+    void recordCell(int row, int col, Cell old)
+    {
+        record(row, col, CellCodes.encode(old), 0);
+    }
+
+    // The rest timer of a monster about to leave the map, or of a level
+    // about to be replaced; reverting sets it again once the monster is back
+    void recordRest(int row, int col, int restUntil)
+    {
+        record(row, col, REST_DELTA, restUntil);
+    }
+
+    private void record(int row, int col, byte cell, int value)
+    {
+        if (deltaEnd - deltaStart == deltaRows.length)
+        {
+            growDeltas();
+        }
+        int slot = (int) (deltaEnd & (deltaRows.length - 1));
+        deltaRows[slot] = row;
+        deltaCols[slot] = col;
+        deltaCells[slot] = cell;
+        deltaValues[slot] = value;
+        deltaEnd++;
+    }
+
+    // The move being recorded replaced the level; the old map and view are
+    // kept as is
+    void levelReplaced(DungeonMap previousLevel, FieldOfView previousView)
+    {
+        previousLevels[next] = previousLevel;
+        previousViews[next] = previousView;
+        levelSwitches[next] = deltaEnd;
+    }
+
+    // Keeps the entry. A move made by redo leaves the rest of the redo
+    // moves in place; any other move starts a new branch of history.
+    void commit(Direction direction, boolean redoing)
+    {
+        if (!recording)
+        {
+            return;
+        }
+        directions[next] = (byte) direction.code();
+        next = (next + 1) % slots;
+        count++;
+        recording = false;
+        if (count > depth)
+        {
+            evictOldest();
+        }
+        if (!redoing)
+        {
+            redoCount = 0;
+        }
+    }
+
+    void abort()
+    {
+        if (recording)
+        {
+            deltaEnd = firstDeltas[next];
+            previousLevels[next] = null;
+            previousViews[next] = null;
+            recording = false;
+        }
+    }
+
+    // The newest entry, for the engine to restore from
+    int lastEntry()
+    {
+        return (next - 1 + slots) % slots;
+    }
+
+    int level(int entry) { return levels[entry]; }
+    int playerHP(int entry) { return playerHPs[entry]; }
+    int score(int entry) { return scores[entry]; }
+    int movesLeft(int entry) { return movesLeft[entry]; }
+    int playerRow(int entry) { return playerRows[entry]; }
+    int playerCol(int entry) { return playerCols[entry]; }
+    int lastExitRow(int entry) { return lastExitRows[entry]; }
+    int lastExitCol(int entry) { return lastExitCols[entry]; }
+    boolean gameCompleted(int entry) { return (flags[entry] & COMPLETED) != 0; }
+    boolean gameWon(int entry) { return (flags[entry] & WON) != 0; }
+    int levelsGenerated(int entry) { return levelsGenerated[entry]; }
+    long combatRolls(int entry) { return combatRolls[entry]; }
+    DungeonMap previousLevel(int entry) { return previousLevels[entry]; }
+    FieldOfView previousView(int entry) { return previousViews[entry]; }
+
+    // Writes back the old cells of the newest entry, newest first. If the
+    // move switched levels only the writes to the previous level matter;
+    // the new level is dropped whole.
+    void revertCells(int entry, Reverter reverter)
+    {
+        long end = levelSwitches[entry] >= 0 ? levelSwitches[entry] : deltaEnd;
+        for (long delta = end - 1; delta >= firstDeltas[entry]; delta--)
+        {
+            int slot = (int) (delta & (deltaRows.length - 1));
+            if (deltaCells[slot] == REST_DELTA)
+            {
+                reverter.restoreRest(deltaRows[slot], deltaCols[slot], deltaValues[slot]);
+            }
+            else
+            {
+                reverter.writeCell(deltaRows[slot], deltaCols[slot], CellCodes.decode(deltaCells[slot]));
+            }
+        }
+    }
+
+    // Drops the newest entry after the engine restored it, remembering its
+    // move for redo
+    void popToRedo(int entry)
+    {
+        deltaEnd = firstDeltas[entry];
+        previousLevels[entry] = null;
+        previousViews[entry] = null;
+        next = entry;
+        count--;
+        redoMoves[redoCount++] = directions[entry];
+    }
+
+    Direction nextRedo()
+    {
+        return Direction.fromCode(redoMoves[redoCount - 1]);
+    }
+
+    void consumeRedo()
+    {
+        redoCount--;
+    }
+
+    private void evictOldest()
+    {
+        int oldest = (next - count + slots) % slots;
+        previousLevels[oldest] = null;
+        previousViews[oldest] = null;
+        count--;
+        deltaStart = firstDeltas[(oldest + 1) % slots];
+    }
+
+    private void growDeltas()
+    {
+        int capacity = deltaRows.length * 2;
+        int[] rows = new int[capacity];
+        int[] cols = new int[capacity];
+        byte[] cells = new byte[capacity];
+        int[] values = new int[capacity];
+        for (long delta = deltaStart; delta < deltaEnd; delta++)
+        {
+            int from = (int) (delta & (deltaRows.length - 1));
+            int to = (int) (delta & (capacity - 1));
+            rows[to] = deltaRows[from];
+            cols[to] = deltaCols[from];
+            cells[to] = deltaCells[from];
+            values[to] = deltaValues[from];
+        }
+        deltaRows = rows;
+        deltaCols = cols;
+        deltaCells = cells;
+        deltaValues = values;
+    }
+
+    interface Reverter
+    {
+        void writeCell(int row, int col, Cell cell);
+
+        void restoreRest(int row, int col, int restUntil);
+    }
+}
@@ -0,0 +1,3 @@
+module dungeon.engine {
+    exports dungeon.engine;
+}
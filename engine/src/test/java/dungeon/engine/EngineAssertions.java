@@ -0,0 +1,31 @@
+package dungeon.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checks shared by the tests that compare an engine with a snapshot or
+// with another engine
+final class EngineAssertions {
+
+    private EngineAssertions() {
+    }
+
+    // Every field of the snapshot and every cell of its map agree with the
+    // engine; given another engine's snapshot, the two games are the same
+    static void assertMatchesEngine(GameEngine engine, EngineSnapshot snapshot) {
+        GameState state = engine.getGameState();
+        assertEquals(state.getCurrentLevel(), snapshot.level());
+        assertEquals(state.getPlayerHP(), snapshot.playerHP());
+        assertEquals(state.getScore(), snapshot.score());
+        assertEquals(state.getMovesLeft(), snapshot.movesLeft());
+        assertEquals(state.getPlayerPosition().getRow(), snapshot.playerRow());
+        assertEquals(state.getPlayerPosition().getCol(), snapshot.playerCol());
+        assertEquals(engine.isGameCompleted(), snapshot.gameCompleted());
+        assertEquals(engine.getRows(), snapshot.rows());
+        assertEquals(engine.getCols(), snapshot.cols());
+        for (int row = 0; row < engine.getRows(); row++) {
+            for (int col = 0; col < engine.getCols(); col++) {
+                assertSame(engine.getCell(row, col), snapshot.map().getCell(row, col));
+            }
+        }
+    }
+}
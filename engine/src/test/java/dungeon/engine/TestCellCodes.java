@@ -0,0 +1,61 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CellCodesTest {
+
+    @Test
+    void testTablesAgreeWithCells() {
+        Set<Byte> symbols = new HashSet<>();
+        for (int code = 0; code < CellCodes.count(); code++) {
+            Cell cell = CellCodes.decode(code);
+            assertEquals(code, cell.getCode());
+            assertSame(cell, CellFactory.createCell(CellCodes.typeName(code)));
+            assertEquals(cell.blocksMovement(), CellCodes.blocksMovement(code));
+            assertTrue(symbols.add(CellCodes.symbol(code)), "two types share a symbol");
+        }
+        assertEquals('#', TextRenderer.symbolFor(CellFactory.WALL));
+        assertEquals('L', TextRenderer.symbolFor(CellFactory.EXIT));
+        assertThrows(IllegalArgumentException.class, () -> CellCodes.decode(CellCodes.count()));
+    }
+
+    @Test
+    void testArrayMapStoresCodes() {
+        Cell[] cells = new Cell[3 * 5];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = CellCodes.decode(i % CellCodes.count());
+        }
+        ArrayMap map = new ArrayMap(3, 5, cells);
+        assertEquals(3, map.getRows());
+        assertEquals(5, map.getCols());
+        for (int i = 0; i < cells.length; i++) {
+            assertSame(cells[i], map.getCell(i / 5, i % 5));
+            assertEquals(cells[i].getCode(), map.getCode(i / 5, i % 5));
+        }
+        map.setCell(2, 4, CellFactory.GOLD);
+        assertEquals(CellCodes.GOLD, map.getCode(2, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ArrayMap(3, 5, new byte[14]));
+    }
+
+    @Test
+    void testNonSquareGame() {
+        GameEngine engine = new GameEngine(12, 30, 1, 8L);
+        assertEquals(12, engine.getRows());
+        assertEquals(30, engine.getCols());
+        assertEquals("PLAYER", engine.getCell(0, 0).getType());
+        assertEquals("EXIT", engine.getCell(11, 29).getType());
+        assertEquals(12, engine.getSnapshot().map().getRows());
+        assertEquals(30, engine.getSnapshot().map().getCols());
+        assertEquals(30, engine.getSnapshot().cols());
+
+        // Every move the map allows stays inside it
+        for (int i = 0; i < 200 && !engine.isGameCompleted(); i++) {
+            engine.movePlayer(Direction.fromCode(i % 4));
+            GameState.Position player = engine.getGameState().getPlayerPosition();
+            assertTrue(engine.getMap().inBounds(player.getRow(), player.getCol()));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifficultyCalibratorTest {
+
+    @Test
+    void testConfigRoundTrip() throws IOException {
+        LevelParameters[] table = {
+                new LevelParameters(1.5, 5, 2, 0.75, 1),
+                new LevelParameters(2.5, 4, 2, 1.25, 2),
+                new LevelParameters(4, 3, 1, 2, 3),
+        };
+        Path file = Files.createTempFile("difficulty", ".properties");
+        try {
+            LevelParameters.store(table, file, "test");
+            assertArrayEquals(table, LevelParameters.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testMissingKeysKeepDefaultsAndBadValuesAreRejected() throws IOException {
+        Path file = Files.createTempFile("difficulty", ".properties");
+        try {
+            Files.writeString(file, "difficulty.2.traps=1.0\n");
+            LevelParameters[] table = LevelParameters.load(file);
+            assertEquals(LevelParameters.defaultsFor(1), table[0]);
+            assertEquals(1.0, table[1].traps());
+            assertEquals(LevelParameters.defaultsFor(2).gold(), table[1].gold());
+
+            Files.writeString(file, "difficulty.1.meleeMutants=-2\n");
+            assertThrows(IOException.class, () -> LevelParameters.load(file));
+            Files.writeString(file, "difficulty.3.gold=lots\n");
+            assertThrows(IOException.class, () -> LevelParameters.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testMoreHazardsLowerTheWinRate() {
+        DifficultyCalibrator calibrator = new DifficultyCalibrator(10, 60, 7L);
+        LevelParameters base = LevelParameters.defaultsFor(2);
+        double safe = calibrator.winRate(2, base.withHazardsScaled(0));
+        double deadly = calibrator.winRate(2, base.withHazardsScaled(4));
+        assertTrue(safe > deadly, safe + " <= " + deadly);
+        // Same seeds for every candidate, so a rerun gives the same answer
+        assertEquals(safe, calibrator.winRate(2, base.withHazardsScaled(0)));
+    }
+
+    @Test
+    void testCalibrationOnlyScalesHazards() {
+        DifficultyCalibrator calibrator = new DifficultyCalibrator(10, 40, 11L);
+        LevelParameters base = LevelParameters.defaultsFor(1);
+        LevelParameters calibrated = calibrator.calibrate(1, 0.5);
+        assertEquals(base.gold(), calibrated.gold());
+        assertEquals(base.healthPotions(), calibrated.healthPotions());
+        double factor = calibrated.traps() / base.traps();
+        assertEquals(base.meleeMutants() * factor, calibrated.meleeMutants(), 1e-9);
+        assertEquals(base.rangedMutants() * factor, calibrated.rangedMutants(), 1e-9);
+    }
+}
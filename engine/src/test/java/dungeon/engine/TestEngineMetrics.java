@@ -0,0 +1,74 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineMetricsTest {
+
+    @Test
+    void testBucketsCoverEveryValueInOrder() {
+        long previous = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketFor(previous + 1));
+            assertEquals(bucket, LatencyHistogram.bucketFor(upper));
+            // Relative bucket width stays under 1/16
+            assertTrue(upper - previous <= Math.max(1, (previous + 1) / 16));
+            previous = upper;
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1_000_000, snapshot.maxNanos());
+        assertEquals(500_500.0, snapshot.meanNanos(), 1e-6);
+        assertEquals(500_000, snapshot.percentileNanos(0.5), 500_000 / 16.0);
+        assertEquals(990_000, snapshot.percentileNanos(0.99), 990_000 / 16.0);
+        assertEquals(1_000_000, snapshot.percentileNanos(1.0));
+    }
+
+    @Test
+    void testEngineCountsMatchWhatHappened() {
+        GameEngine engine = new GameEngine(10, 3, 99L);
+        EngineMetrics metrics = new EngineMetrics();
+        engine.setMetrics(metrics);
+        Map<GameEventType, Integer> seen = new EnumMap<>(GameEventType.class);
+        engine.setEventSink((type, amount, state) -> seen.merge(type, 1, Integer::sum));
+
+        SplittableRandom random = new SplittableRandom(5L);
+        int moved = 0;
+        int blocked = 0;
+        while (!engine.isGameCompleted()) {
+            if (engine.movePlayer(Direction.fromCode(random.nextInt(4)))) {
+                moved++;
+            } else {
+                blocked++;
+            }
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(moved, snapshot.counter("moves.moved"));
+        assertEquals(blocked, snapshot.counter("moves.blocked") + snapshot.counter("moves.finished"));
+        assertEquals(moved + blocked, snapshot.latencies().get("move").count());
+        for (GameEventType type : GameEventType.values()) {
+            assertEquals(seen.getOrDefault(type, 0).longValue(), snapshot.counter("events." + type.name()));
+        }
+        assertEquals(seen.getOrDefault(GameEventType.TRAP, 0).longValue(), snapshot.counter("interactions.TRAP"));
+        // The first level was generated before metrics were attached
+        assertEquals(seen.getOrDefault(GameEventType.LEVEL_COMPLETE, 0).longValue(),
+                snapshot.latencies().get("levelGeneration").count());
+        assertTrue(snapshot.format().contains("latency.move"));
+
+        // New engines are not measured unless -Ddungeon.metrics is set
+        assertNull(new GameEngine(10, 1, 1L).getMetrics());
+    }
+}
@@ -0,0 +1,111 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static dungeon.engine.EngineAssertions.assertMatchesEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineSnapshotTest {
+
+    @Test
+    void testSnapshotFollowsEveryMove() {
+        GameEngine engine = new GameEngine(30, 2, 17L);
+        assertMatchesEngine(engine, engine.getSnapshot());
+        SplittableRandom random = new SplittableRandom(3L);
+        while (!engine.isGameCompleted()) {
+            EngineSnapshot before = engine.getSnapshot();
+            boolean moved = engine.movePlayer(Direction.fromCode(random.nextInt(4)));
+            EngineSnapshot after = engine.getSnapshot();
+            assertMatchesEngine(engine, after);
+            if (moved) {
+                assertTrue(after.version() > before.version());
+                assertTrue(after.mapVersion() > before.mapVersion());
+            } else if (!engine.isGameCompleted()) {
+                assertSame(before, after); // blocked moves publish nothing
+            }
+        }
+    }
+
+    @Test
+    void testOldSnapshotsNeverChange() {
+        GameEngine engine = new GameEngine(20, 1, 5L);
+        MapSnapshot first = engine.getSnapshot().map();
+        Cell[] copy = new Cell[20 * 20];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = first.getCell(i / 20, i % 20);
+        }
+
+        SplittableRandom random = new SplittableRandom(9L);
+        for (int i = 0; i < 60 && !engine.isGameCompleted(); i++) {
+            MapSnapshot previous = engine.getSnapshot().map();
+            engine.movePlayer(Direction.fromCode(random.nextInt(4)));
+            MapSnapshot current = engine.getSnapshot().map();
+            // Every reported cell differs, if only in fog, and every other cell is the same
+            boolean[] reported = new boolean[20 * 20];
+            if (current.changedSince(previous, (r, c) -> reported[r * 20 + c] = true)) {
+                for (int cell = 0; cell < reported.length; cell++) {
+                    int r = cell / 20;
+                    int c = cell % 20;
+                    boolean differs = current.getCell(r, c) != previous.getCell(r, c)
+                            || current.isVisible(r, c) != previous.isVisible(r, c)
+                            || current.isExplored(r, c) != previous.isExplored(r, c);
+                    assertEquals(differs, reported[cell]);
+                }
+            }
+        }
+        for (int i = 0; i < copy.length; i++) {
+            assertSame(copy[i], first.getCell(i / 20, i % 20));
+        }
+    }
+
+    @Test
+    void testNewLevelIsNotComparable() {
+        GameEngine engine = new GameEngine(10, 1, 0L);
+        MapSnapshot levelOne = engine.getSnapshot().map();
+        Route route = new RouteSolver().safestRoute(engine);
+        if (route == null) {
+            return; // no safe way out of this level; other tests cover moves
+        }
+        byte[] outcomes = new byte[route.length()];
+        byte[] moves = new byte[route.length()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) route.getMove(i).code();
+        }
+        engine.applyMoves(moves, 0, moves.length, outcomes, 0);
+        EngineSnapshot snapshot = engine.getSnapshot();
+        assertEquals(2, snapshot.level());
+        assertFalse(snapshot.map().changedSince(levelOne, (r, c) -> fail("new level reported cell by cell")));
+        assertMatchesEngine(engine, snapshot);
+    }
+
+    @Test
+    void testReaderOnAnotherThreadSeesWholeMoves() throws InterruptedException {
+        GameEngine engine = new GameEngine(40, 1, 21L);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long lastVersion = 0;
+            while (!done.get()) {
+                EngineSnapshot snapshot = engine.getSnapshot();
+                if (snapshot.version() < lastVersion) {
+                    problem.set("version went backwards");
+                }
+                lastVersion = snapshot.version();
+                // The player tile and the player position always agree
+                if (snapshot.map().getCell(snapshot.playerRow(), snapshot.playerCol()).getCode() != CellCodes.PLAYER) {
+                    problem.set("player not on the map at version " + snapshot.version());
+                }
+            }
+        });
+        reader.start();
+        SplittableRandom random = new SplittableRandom(1L);
+        while (!engine.isGameCompleted()) {
+            engine.movePlayer(Direction.fromCode(random.nextInt(4)));
+        }
+        done.set(true);
+        reader.join();
+        assertNull(problem.get());
+    }
+}
@@ -0,0 +1,161 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+    // An open 10x10 level with the player and melee mutants at the given cells
+    private static GameEngine level(int playerRow, int playerCol, int... mutants) {
+        int size = 10;
+        Cell[] cells = new Cell[size * size];
+        Arrays.fill(cells, CellFactory.EMPTY);
+        for (int i = 0; i < mutants.length; i += 2) {
+            cells[mutants[i] * size + mutants[i + 1]] = CellFactory.MELEE_MUTANT;
+        }
+        cells[playerRow * size + playerCol] = CellFactory.PLAYER;
+        cells[size * size - 1] = CellFactory.EXIT;
+        GameState state = new GameState(1, 1, 10, 0, 100, new GameState.Position(playerRow, playerCol));
+        return new GameEngine(1L, state, new ArrayMap(size, size, cells), new GameState.Position(size - 1, size - 1),
+                1, 0, false, false, new Replay(1L, size, 1));
+    }
+
+    private static void assertMutantAt(GameEngine engine, int row, int col) {
+        assertEquals("MELEE_MUTANT", engine.getCell(row, col).getType(), "at " + row + "," + col);
+    }
+
+    @Test
+    void testSlotsAndBlocksSurviveRemovals() {
+        EntityStore store = new EntityStore();
+        SplittableRandom random = new SplittableRandom(7L);
+        boolean[] occupied = new boolean[200 * 200];
+        for (int i = 0; i < 3000; i++) {
+            int cell = random.nextInt(occupied.length);
+            if (occupied[cell]) {
+                store.remove(cell / 200, cell % 200);
+            } else {
+                store.add(cell / 200, cell % 200, EntityStore.MELEE);
+            }
+            occupied[cell] = !occupied[cell];
+        }
+        assertTrue(store.hasBlocks());
+
+        int expected = 0;
+        for (int cell = 0; cell < occupied.length; cell++) {
+            int slot = store.slotAt(cell / 200, cell % 200);
+            if (occupied[cell]) {
+                expected++;
+                assertEquals(cell / 200, store.row(slot));
+                assertEquals(cell % 200, store.col(slot));
+            } else {
+                assertEquals(-1, slot);
+            }
+        }
+        assertEquals(expected, store.size());
+
+        // Every monster is chained into exactly the block it stands in
+        int chained = 0;
+        int blocks = 200 >> EntityStore.BLOCK_BITS;
+        for (int blockRow = 0; blockRow <= blocks; blockRow++) {
+            for (int blockCol = 0; blockCol <= blocks; blockCol++) {
+                for (int slot = store.firstInBlock(blockRow, blockCol); slot >= 0; slot = store.nextInBlock(slot)) {
+                    assertEquals(blockRow, store.row(slot) >> EntityStore.BLOCK_BITS);
+                    assertEquals(blockCol, store.col(slot) >> EntityStore.BLOCK_BITS);
+                    chained++;
+                }
+            }
+        }
+        assertEquals(store.size(), chained);
+    }
+
+    @Test
+    void testMeleeMutantChasesAndRests() {
+        GameEngine engine = level(0, 0, 0, 4);
+        assertTrue(engine.movePlayer(Direction.DOWN));    // player 1,0
+        assertMutantAt(engine, 0, 3);                     // closes the longer gap
+        assertTrue(engine.movePlayer(Direction.RIGHT));   // player 1,1
+        assertMutantAt(engine, 0, 3);                     // resting
+        assertTrue(engine.movePlayer(Direction.DOWN));    // player 2,1
+        assertMutantAt(engine, 1, 3);
+        assertEquals(1, engine.getMonsters().size());
+    }
+
+    @Test
+    void testAdjacentMutantFights() {
+        GameEngine engine = level(0, 0, 1, 1);
+        assertTrue(engine.movePlayer(Direction.RIGHT));   // player 0,1, mutant right below
+        assertEquals("EMPTY", engine.getCell(1, 1).getType());
+        assertEquals(8, engine.getGameState().getPlayerHP());
+        assertEquals(2, engine.getGameState().getScore());
+        assertEquals(0, engine.getMonsters().size());
+    }
+
+    @Test
+    void testContestedTileGoesToFirstMonsterInRowOrder() {
+        // Both mutants want 4,6 once the player reaches 5,5
+        GameEngine engine = level(5, 4, 4, 7, 3, 6);
+        assertTrue(engine.movePlayer(Direction.RIGHT));
+        assertMutantAt(engine, 4, 6);
+        assertMutantAt(engine, 4, 7);
+        assertEquals("EMPTY", engine.getCell(3, 6).getType());
+    }
+
+    @Test
+    void testRestingMutantSurvivesUndoAndSave() throws IOException {
+        GameEngine engine = level(0, 0, 0, 4);
+        engine.movePlayer(Direction.DOWN);                // mutant steps to 0,3 and rests
+        engine.movePlayer(Direction.RIGHT);
+        engine.undo();                                    // back to the resting mutant
+
+        Path file = Files.createTempFile("dungeon", ".sav");
+        try {
+            SaveFile.write(engine, file);
+            GameEngine loaded = SaveFile.read(file);
+            for (GameEngine game : new GameEngine[] {engine, loaded}) {
+                assertTrue(game.movePlayer(Direction.RIGHT));
+                assertMutantAt(game, 0, 3);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testOnlyMonstersNearThePlayerAct() {
+        int size = 1000;
+        Cell[] cells = new Cell[size * size];
+        Arrays.fill(cells, CellFactory.EMPTY);
+        SplittableRandom random = new SplittableRandom(3L);
+        int placed = 0;
+        while (placed < 100_000) {
+            int cell = random.nextInt(cells.length);
+            if (cells[cell] == CellFactory.EMPTY && cell != 500 * size + 500) {
+                cells[cell] = CellFactory.MELEE_MUTANT;
+                placed++;
+            }
+        }
+        cells[500 * size + 500] = CellFactory.PLAYER;
+        cells[size * size - 1] = CellFactory.EXIT;
+        Cell[] before = cells.clone();
+        GameState state = new GameState(1, 1, 10, 0, 100, new GameState.Position(500, 500));
+        GameEngine engine = new GameEngine(1L, state, new ArrayMap(size, size, cells),
+                new GameState.Position(size - 1, size - 1), 1, 0, false, false, new Replay(1L, size, 1));
+        assertEquals(100_000, engine.getMonsters().size());
+
+        engine.drainChangedCells((row, col) -> { });
+        engine.movePlayer(Direction.RIGHT);
+        int[] farthest = {0};
+        engine.drainChangedCells((row, col) -> {
+            // Cells coming into view are reported too; only count real writes
+            if (engine.getCell(row, col) != before[row * size + col]) {
+                farthest[0] = Math.max(farthest[0], Math.abs(row - 500) + Math.abs(col - 501));
+            }
+        });
+        assertTrue(farthest[0] <= TurnScheduler.CHASE_RADIUS, "changed a cell " + farthest[0] + " away");
+    }
+}
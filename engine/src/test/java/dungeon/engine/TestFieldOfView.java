@@ -0,0 +1,189 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldOfViewTest {
+
+    // A rows x cols grid of walls ('#') and floor ('.') rows
+    private static FieldOfView.Opacity walls(String... grid) {
+        return (row, col) -> grid[row].charAt(col) == '#';
+    }
+
+    @Test
+    void testWallsBlockSight() {
+        String[] grid = {
+            ".........",
+            ".........",
+            "....#....",
+            ".........",
+            ".........",
+        };
+        FieldOfView view = new FieldOfView(5, 9, walls(grid));
+        view.update(4, 4, (row, col) -> { });
+        assertTrue(view.isVisible(4, 4));
+        assertTrue(view.isVisible(2, 4));          // the wall itself is seen
+        assertFalse(view.isVisible(1, 4));         // but not what is behind it
+        assertFalse(view.isVisible(0, 4));
+        assertTrue(view.isVisible(0, 0));
+        assertFalse(view.isVisible(-1, 4));        // off the map
+    }
+
+    @Test
+    void testExploredCellsStayExplored() {
+        FieldOfView view = new FieldOfView(1, 40, (row, col) -> false);
+        view.update(0, 0, (row, col) -> { });
+        assertTrue(view.isVisible(0, FieldOfView.RADIUS));
+        assertFalse(view.isVisible(0, FieldOfView.RADIUS + 1));
+        assertFalse(view.isExplored(0, FieldOfView.RADIUS + 1));
+
+        view.update(0, 30, (row, col) -> { });
+        assertFalse(view.isVisible(0, 0));
+        assertTrue(view.isExplored(0, 0));
+        assertTrue(view.isExplored(0, 30 + FieldOfView.RADIUS));
+        assertFalse(view.isExplored(0, 15));
+    }
+
+    @Test
+    void testUpdateReportsOnlyCellsThatChanged() {
+        FieldOfView view = new FieldOfView(100, 100, (row, col) -> false);
+        view.update(50, 50, (row, col) -> { });
+        boolean[] before = new boolean[100 * 100];
+        for (int cell = 0; cell < before.length; cell++) {
+            before[cell] = view.isVisible(cell / 100, cell % 100);
+        }
+
+        boolean[] reported = new boolean[100 * 100];
+        view.update(50, 51, (row, col) -> {
+            assertFalse(reported[row * 100 + col], "reported twice");
+            reported[row * 100 + col] = true;
+        });
+        for (int cell = 0; cell < before.length; cell++) {
+            assertEquals(before[cell] != view.isVisible(cell / 100, cell % 100), reported[cell]);
+        }
+    }
+
+    @Test
+    void testRangedShotsKeepTheStraightLineRule() {
+        // canSee over two tiles in a line is blocked exactly by a wall between
+        SplittableRandom random = new SplittableRandom(11L);
+        char[][] cells = new char[12][12];
+        for (char[] row : cells) {
+            for (int col = 0; col < row.length; col++) {
+                row[col] = random.nextInt(3) == 0 ? '#' : '.';
+            }
+        }
+        FieldOfView view = new FieldOfView(12, 12, (row, col) -> cells[row][col] == '#');
+        int[][] offsets = {{-2, 0}, {-1, 0}, {0, -2}, {0, -1}, {0, 1}, {0, 2}, {1, 0}, {2, 0}};
+        for (int row = 2; row < 10; row++) {
+            for (int col = 2; col < 10; col++) {
+                for (int[] offset : offsets) {
+                    int toRow = row + offset[0];
+                    int toCol = col + offset[1];
+                    boolean clear = cells[row + offset[0] / 2][col + offset[1] / 2] != '#'
+                            || Math.abs(offset[0] + offset[1]) == 1;
+                    assertEquals(clear, view.canSee(row, col, toRow, toCol), row + "," + col + " -> " + toRow + "," + toCol);
+                }
+            }
+        }
+        assertFalse(view.canSee(0, 0, 0, FieldOfView.RADIUS + 1));
+    }
+
+    @Test
+    void testFogFollowsThePlayerThroughUndo() {
+        int size = 30;
+        Cell[] cells = new Cell[size * size];
+        Arrays.fill(cells, CellFactory.EMPTY);
+        cells[0] = CellFactory.PLAYER;
+        cells[size * size - 1] = CellFactory.EXIT;
+        GameState state = new GameState(1, 1, 10, 0, 100, new GameState.Position(0, 0));
+        GameEngine engine = new GameEngine(1L, state, new ArrayMap(size, size, cells),
+                new GameState.Position(size - 1, size - 1), 1, 0, false, false, new Replay(1L, size, 1));
+        assertNull(engine.getRevealedCell(0, 12));
+        assertFalse(engine.getSnapshot().map().isExplored(0, 12));
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(engine.movePlayer(Direction.RIGHT));
+        }
+        assertTrue(engine.isVisible(0, 12));
+        assertTrue(engine.getSnapshot().map().isVisible(0, 12));
+        assertSame(CellFactory.EMPTY, engine.getRevealedCell(0, 12));
+
+        assertTrue(engine.undo());
+        assertTrue(engine.undo());
+        assertFalse(engine.isVisible(0, 12));
+        assertTrue(engine.isExplored(0, 12));
+        MapSnapshot map = engine.getSnapshot().map();
+        assertFalse(map.isVisible(0, 12));
+        assertTrue(map.isExplored(0, 12));
+        assertSame(CellFactory.EMPTY, map.getRevealedCell(0, 12));
+    }
+
+    @Test
+    void testRangedMutantsDoNotBlindThePlayer() {
+        // Every step along row 0 puts a ranged mutant two tiles below the
+        // player, so the threat index asks canSee before each recast
+        int size = 30;
+        Cell[] cells = new Cell[size * size];
+        Arrays.fill(cells, CellFactory.EMPTY);
+        for (int col = 0; col < 12; col++) {
+            cells[2 * size + col] = CellFactory.RANGED_MUTANT;
+        }
+        cells[0] = CellFactory.PLAYER;
+        cells[size * size - 1] = CellFactory.EXIT;
+        GameState state = new GameState(1, 1, 100, 0, 100, new GameState.Position(0, 0));
+        GameEngine engine = new GameEngine(1L, state, new ArrayMap(size, size, cells),
+                new GameState.Position(size - 1, size - 1), 1, 0, false, false, new Replay(1L, size, 1));
+
+        for (int col = 1; col <= 8; col++) {
+            assertTrue(engine.movePlayer(Direction.RIGHT));
+            assertTrue(engine.isVisible(0, col + FieldOfView.RADIUS), "blind after step " + col);
+            assertTrue(engine.isVisible(2, col));
+        }
+    }
+
+    @Test
+    void testEveryMoveSeesPastThePlayer() {
+        for (long seed = 0; seed < 40; seed++) {
+            GameEngine engine = new GameEngine(20, 2, seed);
+            SplittableRandom policy = new SplittableRandom(seed);
+            for (int i = 0; i < 40 && !engine.isGameCompleted(); i++) {
+                engine.movePlayer(Direction.fromCode(policy.nextInt(4)));
+                GameState.Position player = engine.getGameState().getPlayerPosition();
+                int seen = 0;
+                for (int[] step : new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}}) {
+                    int row = player.getRow() + step[0];
+                    int col = player.getCol() + step[1];
+                    if (engine.getMap().inBounds(row, col) && engine.isVisible(row, col)) {
+                        seen++;
+                    }
+                }
+                assertTrue(seen > 0, "seed " + seed + " move " + i);
+            }
+        }
+    }
+
+    @Test
+    void testFogOfWarCanBeTurnedOff() {
+        GameEngine engine = new GameEngine(30, 1, 4L);
+        assertFalse(engine.isExplored(29, 29));
+        engine.setFogOfWar(false);
+        assertTrue(engine.isVisible(29, 29));
+        assertTrue(engine.getSnapshot().map().isVisible(29, 29));
+        assertSame(engine.getCell(29, 29), engine.getSnapshot().map().getRevealedCell(29, 29));
+
+        engine.setFogOfWar(true);
+        assertFalse(engine.isExplored(29, 29));
+        assertFalse(engine.getSnapshot().map().isExplored(29, 29));
+        assertTrue(engine.getSnapshot().map().isVisible(0, 0));
+    }
+
+    @Test
+    void testMonstersOutOfSightAreNotRemembered() {
+        assertSame(CellFactory.EMPTY, FieldOfView.remembered(CellFactory.MELEE_MUTANT));
+        assertSame(CellFactory.EMPTY, FieldOfView.remembered(CellFactory.RANGED_MUTANT));
+        assertSame(CellFactory.GOLD, FieldOfView.remembered(CellFactory.GOLD));
+    }
+}
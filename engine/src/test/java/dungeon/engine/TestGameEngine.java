@@ -0,0 +1,107 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(10);
+    }
+
+    @Test
+    void testInitialState() {
+        assertFalse(engine.isGameCompleted());
+        assertEquals(10, engine.getSize());
+        assertNotNull(engine.getGameState());
+    }
+
+    @Test
+    void testMovePlayer() {
+    // Test valid move - move DOWN instead of RIGHT since we know (0,1) is a wall
+    assertTrue(engine.movePlayer("DOWN"));
+    
+    // Test moving into a wall
+    assertTrue(engine.movePlayer("RIGHT")); // This should work from (1,0)
+    assertFalse(engine.movePlayer("RIGHT")); // This should fail because of wall at (1,2)
+    
+    // Test moving out of bounds
+    GameState.Position pos = engine.getGameState().getPlayerPosition();
+    // Move to edge first
+    while (pos.getRow() > 0) {
+        engine.movePlayer("UP");
+    }
+    assertFalse(engine.movePlayer("UP")); // Should be at top edge
+}
+
+    @Test
+    void testGameOver() {
+        // Reduce HP to 0
+        GameState gameState = engine.getGameState();
+        gameState.changeHP(-10);
+
+        // Try to move after game over
+        assertFalse(engine.movePlayer("RIGHT"));
+        assertTrue(engine.isGameCompleted());
+    }
+
+    @Test
+    void testPlacementCountsFollowDifficulty() {
+        GameEngine easy = new GameEngine(10, 1, 5L);
+        assertEquals(5, countCells(easy, "TRAP"));
+        assertEquals(5, countCells(easy, "GOLD"));
+        assertEquals(2, countCells(easy, "HEALTH_POTION"));
+        assertEquals(3, countCells(easy, "MELEE_MUTANT"));
+        assertEquals(3, countCells(easy, "RANGED_MUTANT"));
+
+        GameEngine hard = new GameEngine(10, 3, 5L);
+        assertTrue(countCells(hard, "TRAP") > countCells(easy, "TRAP"));
+        assertTrue(countCells(hard, "GOLD") < countCells(easy, "GOLD"));
+    }
+
+    @Test
+    void testBatchedMovesMatchSingleMoves() {
+        GameEngine single = new GameEngine(20, 2, 77L);
+        GameEngine batched = new GameEngine(20, 2, 77L);
+        SplittableRandom random = new SplittableRandom(3L);
+        byte[] moves = new byte[400];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) random.nextInt(4);
+        }
+
+        byte[] outcomes = new byte[moves.length];
+        int applied = batched.applyMoves(moves, 0, moves.length, outcomes, 0);
+        for (int i = 0; i < applied; i++) {
+            boolean moved = single.movePlayer(Direction.fromCode(moves[i]));
+            assertEquals(moved, MoveOutcome.status(outcomes[i]) == MoveOutcome.MOVED);
+        }
+        assertEquals(single.isGameCompleted(), batched.isGameCompleted());
+        if (applied < moves.length) {
+            assertTrue(MoveOutcome.has(outcomes[applied - 1], MoveOutcome.GAME_ENDED));
+        }
+        assertEquals(single.getGameState().getScore(), batched.getGameState().getScore());
+        assertEquals(single.getGameState().getPlayerHP(), batched.getGameState().getPlayerHP());
+        assertEquals(single.getReplay().getMoveCount(), batched.getReplay().getMoveCount());
+    }
+
+    @Test
+    void testBadDirectionCode() {
+        byte[] outcomes = new byte[1];
+        assertEquals(1, engine.applyMoves(new byte[] {9}, 0, 1, outcomes, 0));
+        assertEquals(MoveOutcome.BAD_DIRECTION, MoveOutcome.status(outcomes[0]));
+    }
+
+    private static int countCells(GameEngine engine, String type) {
+        int count = 0;
+        for (int row = 0; row < engine.getSize(); row++) {
+            for (int col = 0; col < engine.getSize(); col++) {
+                if (engine.getCell(row, col).getType().equals(type)) count++;
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private static GameServer startServer(Duration idleTimeout) throws IOException {
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                10, 1, idleTimeout, 1000);
+        server.start();
+        return server;
+    }
+
+    private static String play(int port, String commands) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(commands.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        try (GameServer server = startServer(Duration.ofSeconds(30));
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> transcripts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                transcripts.add(clients.submit(() -> play(server.getPort(), "help\nRIGHT\nQUIT\n")));
+            }
+            for (Future<String> transcript : transcripts) {
+                String text = transcript.get();
+                assertTrue(text.contains("Available commands:"));
+                assertTrue(text.contains("Thanks for playing!"));
+            }
+        }
+    }
+
+    @Test
+    void testIdleSessionIsClosed() throws Exception {
+        try (GameServer server = startServer(Duration.ofMillis(200));
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10_000);
+            String text = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(text.startsWith("Welcome to MiniDungeon!"));
+            for (int i = 0; i < 100 && server.getSessionCount() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, server.getSessionCount());
+        }
+    }
+
+    @Test
+    void testFailedGameSetupOnlyEndsItsOwnSession() throws Exception {
+        // A 0x0 map cannot be built, so every session fails while starting
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                0, 1, Duration.ofSeconds(30), 1000)) {
+            server.start();
+            for (int i = 0; i < 3; i++) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                    socket.setSoTimeout(10_000);
+                    assertEquals(0, socket.getInputStream().readAllBytes().length);
+                }
+            }
+            for (int i = 0; i < 100 && server.getSessionCount() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, server.getSessionCount());
+        }
+    }
+}
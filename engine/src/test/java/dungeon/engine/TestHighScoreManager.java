@@ -0,0 +1,95 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HighScoreManagerTest {
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testTopScoresPerDifficultySurviveRestart() throws IOException {
+        Path dir = Files.createTempDirectory("scores");
+        try {
+            HighScoreManager scores = new HighScoreManager(dir.resolve("scores.log"));
+            for (int i = 0; i < 20; i++) {
+                scores.addScore("p" + i, i * 10, 1 + i % 3);
+            }
+            scores.flush();
+
+            HighScoreManager reopened = new HighScoreManager(dir.resolve("scores.log"));
+            List<HighScoreManager.ScoreEntry> hard = reopened.getHighScores(3);
+            assertEquals(5, hard.size());
+            assertEquals(170, hard.get(0).getScore());
+            assertEquals(50, hard.get(4).getScore());
+            assertEquals(190, reopened.getHighScores().get(0).getScore());
+            assertFalse(reopened.isHighScore(50, 3));
+            assertTrue(reopened.isHighScore(60, 3));
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        Path dir = Files.createTempDirectory("scores");
+        try {
+            Path log = dir.resolve("scores.log");
+            HighScoreManager scores = new HighScoreManager(log);
+            scores.addScore("first", 10, 1);
+            scores.addScore("second", 20, 1);
+            assertTrue(scores.isFlushScheduled());
+            scores.flush();
+            assertFalse(scores.isFlushScheduled()); // nothing left to touch the log later
+            // A crash half way through appending the second record
+            byte[] bytes = Files.readAllBytes(log);
+            Files.write(log, Arrays.copyOf(bytes, bytes.length - 3));
+
+            HighScoreManager reopened = new HighScoreManager(log);
+            List<HighScoreManager.ScoreEntry> kept = reopened.getHighScores(1);
+            assertEquals(1, kept.size());
+            assertEquals("first", kept.get(0).getPlayerName());
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void testCompactionKeepsTables() throws IOException {
+        Path dir = Files.createTempDirectory("scores");
+        try {
+            Path log = dir.resolve("scores.log");
+            HighScoreManager scores = new HighScoreManager(log);
+            for (int i = 0; i < 2000; i++) {
+                scores.addScore("p" + i, (i * 7919) % 1000, 2);
+                if (i % 100 == 99) {
+                    scores.flush();
+                }
+            }
+            List<HighScoreManager.ScoreEntry> before = scores.getHighScores(2);
+            assertTrue(Files.size(log) < 2000 * 10);
+
+            List<HighScoreManager.ScoreEntry> after = new HighScoreManager(log).getHighScores(2);
+            assertEquals(before.size(), after.size());
+            for (int i = 0; i < before.size(); i++) {
+                assertEquals(before.get(i).getScore(), after.get(i).getScore());
+                assertEquals(before.get(i).getPlayerName(), after.get(i).getPlayerName());
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelValidatorTest {
+
+    // Open floor, but half the time a full wall column cuts the map in two
+    private static final MazeGenerator SOMETIMES_SPLIT = (rows, cols, random, walls) -> {
+        if (random.nextBoolean()) {
+            for (int row = 0; row < rows; row++) {
+                walls.set(row * cols + cols / 2);
+            }
+        }
+    };
+
+    @Test
+    void testBuiltInMazesArePlayable() {
+        LevelParameters parameters = LevelParameters.forDifficulty(3);
+        for (long seed = 0; seed < 200; seed++) {
+            int size = seed % 2 == 0 ? 10 : 30;
+            LevelGenerator generator = new LevelGenerator(size, size, seed,
+                    MazeGenerator.forSize(size, size), parameters);
+            assertTrue(LevelValidator.isPlayable(ArrayMap.generate(generator)));
+        }
+    }
+
+    @Test
+    void testUnplayableLayoutsAreReplaced() {
+        LevelParameters parameters = LevelParameters.forDifficulty(1);
+        int replaced = 0;
+        for (long seed = 0; seed < 50; seed++) {
+            LevelGenerator generator = new LevelGenerator(20, 20, seed, SOMETIMES_SPLIT, parameters);
+            boolean firstPlayable = LevelValidator.isPlayable(ArrayMap.generate(generator));
+            ArrayMap map = LevelValidator.generatePlayable(20, 20, seed, SOMETIMES_SPLIT, parameters);
+            assertTrue(LevelValidator.isPlayable(map));
+            if (!firstPlayable) {
+                replaced++;
+                // Retries are derived from the seed, so the same level comes back every time
+                ArrayMap again = LevelValidator.generatePlayable(20, 20, seed, SOMETIMES_SPLIT, parameters);
+                for (int row = 0; row < 20; row++) {
+                    for (int col = 0; col < 20; col++) {
+                        assertSame(map.getCell(row, col), again.getCell(row, col));
+                    }
+                }
+            }
+        }
+        assertTrue(replaced > 0);
+    }
+
+    private static ChunkedMap streamed(LevelGenerator generator) {
+        return new ChunkedMap(generator, 16, new ChunkedMap.Listener() {
+            @Override
+            public void chunkLoaded(int originRow, int originCol, int rows, int cols) {
+            }
+
+            @Override
+            public void chunkEvicting(int originRow, int originCol, int rows, int cols) {
+            }
+        });
+    }
+
+    @Test
+    void testStreamedChunksAreReplacedUntilConnected() {
+        LevelParameters parameters = LevelParameters.forDifficulty(1);
+        int unplayableUnchecked = 0;
+        for (long seed = 0; seed < 10; seed++) {
+            LevelGenerator generator = new LevelGenerator(150, 150, seed, SOMETIMES_SPLIT, parameters);
+            if (!LevelValidator.isPlayable(ArrayMap.generate(generator))) {
+                unplayableUnchecked++;
+            }
+            ChunkedMap map = streamed(generator);
+            assertTrue(LevelValidator.isPlayable(map));
+            map.close();
+        }
+        assertTrue(unplayableUnchecked > 0);
+    }
+
+    @Test
+    void testBuiltInStreamedLevelsNeedNoReplacement() {
+        // So a streamed level and an in-memory one with the same seed agree
+        LevelParameters parameters = LevelParameters.forDifficulty(2);
+        for (long seed = 0; seed < 5; seed++) {
+            LevelGenerator generator = new LevelGenerator(200, 130, seed, MazeGenerator.forSize(200, 130), parameters);
+            ArrayMap whole = ArrayMap.generate(generator);
+            ChunkedMap map = streamed(generator);
+            for (int row = 0; row < 200; row++) {
+                for (int col = 0; col < 130; col++) {
+                    assertEquals(whole.getCode(row, col), map.getCode(row, col));
+                }
+            }
+            map.close();
+        }
+    }
+
+    @Test
+    void testGeneratorThatNeverConnectsFails() {
+        MazeGenerator alwaysSplit = (rows, cols, random, walls) -> walls.set(0, rows * cols);
+        assertThrows(IllegalStateException.class, () -> LevelValidator.generatePlayable(10, 10, 1L,
+                alwaysSplit, LevelParameters.forDifficulty(1)));
+    }
+}
@@ -0,0 +1,65 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MazeGeneratorTest {
+
+    // Breadth-first search from the top-left corner over open cells
+    private static boolean exitReachable(int rows, int cols, BitSet walls) {
+        BitSet seen = new BitSet(rows * cols);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        seen.set(0);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int row = cell / cols;
+            int col = cell % cols;
+            if (row == rows - 1 && col == cols - 1) return true;
+            int[][] steps = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for (int[] step : steps) {
+                int r = row + step[0];
+                int c = col + step[1];
+                int next = r * cols + c;
+                if (r >= 0 && r < rows && c >= 0 && c < cols && !walls.get(next) && !seen.get(next)) {
+                    seen.set(next);
+                    queue.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testBacktrackerExitAlwaysReachable() {
+        int[][] sizes = {{2, 2}, {3, 3}, {10, 10}, {11, 11}, {25, 40}, {40, 25}, {64, 63}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 20; seed++) {
+                BitSet walls = new BitSet();
+                new BacktrackerMaze(0).generate(size[0], size[1], new SplittableRandom(seed), walls);
+                assertFalse(walls.get(0));
+                assertFalse(walls.get(size[0] * size[1] - 1));
+                assertTrue(exitReachable(size[0], size[1], walls), size[0] + "x" + size[1] + " seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testClassicMazeKeptForTenByTen() {
+        BitSet walls = new BitSet();
+        MazeGenerator.forSize(10, 10).generate(10, 10, new SplittableRandom(1), walls);
+        assertEquals(40, walls.cardinality());
+        assertTrue(walls.get(1 * 10 + 1));
+    }
+
+    @Test
+    void testLargerEnginePlaysOnGeneratedMaze() {
+        GameEngine engine = new GameEngine(31, 1, 3L);
+        assertEquals(31, engine.getSize());
+        assertEquals("PLAYER", engine.getCell(0, 0).getType());
+        assertEquals("EXIT", engine.getCell(30, 30).getType());
+    }
+}
@@ -0,0 +1,109 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+
+    private static GameEngine playRandomGame(long seed) {
+        GameEngine engine = new GameEngine(10, 1, seed);
+        SplittableRandom policy = new SplittableRandom(seed);
+        for (int i = 0; i < 500 && !engine.isGameCompleted(); i++) {
+            engine.movePlayer(Direction.fromCode(policy.nextInt(4)));
+        }
+        return engine;
+    }
+
+    @Test
+    void testSameSeedSameLevel() {
+        GameEngine first = new GameEngine(10, 1, 1234L);
+        GameEngine second = new GameEngine(10, 1, 1234L);
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                assertEquals(first.getCell(row, col).getType(), second.getCell(row, col).getType());
+            }
+        }
+    }
+
+    @Test
+    void testPackedMovesRoundTrip() {
+        Replay replay = new Replay(7L, 10, 1);
+        Direction[] moves = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+        for (int i = 0; i < 1000; i++) {
+            replay.record(moves[i % moves.length]);
+        }
+        assertEquals(1000, replay.getMoveCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(moves[i % moves.length], replay.getMove(i));
+        }
+    }
+
+    @Test
+    void testReplayReproducesGame() throws IOException {
+        GameEngine original = playRandomGame(99L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.getReplay().writeTo(bytes);
+        Replay loaded = Replay.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        GameEngine replayed = loaded.play();
+
+        GameState expected = original.getGameState();
+        GameState actual = replayed.getGameState();
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getPlayerHP(), actual.getPlayerHP());
+        assertEquals(expected.getMovesLeft(), actual.getMovesLeft());
+        assertEquals(expected.getCurrentLevel(), actual.getCurrentLevel());
+        assertEquals(expected.getPlayerPosition().getRow(), actual.getPlayerPosition().getRow());
+        assertEquals(expected.getPlayerPosition().getCol(), actual.getPlayerPosition().getCol());
+    }
+
+    @Test
+    void testNonSquareReplayRoundTrip() throws IOException {
+        GameEngine original = new GameEngine(8, 21, 1, 5L);
+        original.movePlayer(Direction.RIGHT);
+        original.movePlayer(Direction.DOWN);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.getReplay().writeTo(bytes);
+        Replay loaded = Replay.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(8, loaded.getRows());
+        assertEquals(21, loaded.getCols());
+        GameEngine replayed = loaded.play();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 21; col++) {
+                assertSame(original.getCell(row, col), replayed.getCell(row, col));
+            }
+        }
+    }
+
+    @Test
+    void testTruncatedReplayIsRejected() throws IOException {
+        // A header claiming ~2^31 moves, followed by only a few bytes
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Replay(3L, 10, 1).writeTo(bytes);
+        byte[] header = bytes.toByteArray();
+        byte[] data = Arrays.copyOf(header, header.length + 10);
+        ByteBuffer.wrap(data).putInt(header.length - 4, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> Replay.readFrom(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    void testBadHeaderIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Replay(3L, 10, 1).writeTo(bytes);
+        byte[] header = bytes.toByteArray();
+        // rows, cols and difficulty follow the version byte and the seed
+        int[][] edits = {{9, 0}, {13, -4}, {17, 0}, {17, 4}};
+        for (int[] edit : edits) {
+            byte[] data = header.clone();
+            ByteBuffer.wrap(data).putInt(edit[0], edit[1]);
+            assertThrows(IOException.class, () -> Replay.readFrom(new ByteArrayInputStream(data)));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferEventSinkTest {
+
+    @Test
+    void testDrainsInOrderAndDropsWhenFull() {
+        RingBufferEventSink sink = new RingBufferEventSink(4);
+        GameState state = new GameState(1);
+        for (int i = 0; i < 6; i++) {
+            sink.onEvent(GameEventType.GOLD_FOUND, i, state);
+        }
+        List<GameEvent> events = new ArrayList<>();
+        assertEquals(4, sink.drain(events::add));
+        assertEquals(2, sink.getDroppedCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, events.get(i).amount());
+        }
+
+        sink.onEvent(GameEventType.TRAP, 1, state);
+        events.clear();
+        assertEquals(1, sink.drain(events::add));
+        assertEquals("Ouch! You stepped on a trap!", events.get(0).message());
+    }
+
+    @Test
+    void testEngineReportsEvents() {
+        GameEngine engine = new GameEngine(30, 3, 11L);
+        RingBufferEventSink sink = new RingBufferEventSink(1024);
+        engine.setEventSink(sink);
+        SplittableRandom random = new SplittableRandom(2L);
+        for (int i = 0; i < 2000 && !engine.isGameCompleted(); i++) {
+            engine.movePlayer(Direction.fromCode(random.nextInt(4)));
+        }
+        assertTrue(engine.isGameCompleted());
+
+        List<GameEvent> events = new ArrayList<>();
+        sink.drain(events::add);
+        GameEventType last = events.get(events.size() - 1).type();
+        assertTrue(last == GameEventType.OUT_OF_HEALTH || last == GameEventType.OUT_OF_MOVES
+                || last == GameEventType.ESCAPED);
+        assertEquals(engine.getGameState().getScore(), events.get(events.size() - 1).score());
+    }
+}
@@ -0,0 +1,51 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteSolverTest {
+
+    // Runs the route on a fresh copy of the game and returns the last outcome
+    private static byte follow(GameEngine engine, Route route) {
+        byte[] outcomes = new byte[route.length()];
+        int applied = engine.applyMoves(route.moves(), 0, route.length(), outcomes, 0);
+        for (int i = 0; i < applied; i++) {
+            assertEquals(MoveOutcome.MOVED, MoveOutcome.status(outcomes[i]));
+        }
+        return outcomes[applied - 1];
+    }
+
+    @Test
+    void testRoutesLeadToTheExit() {
+        RouteSolver solver = new RouteSolver();
+        int checked = 0;
+        for (long seed = 0; seed < 200; seed++) {
+            Route safe = solver.safestRoute(new GameEngine(10, 1, seed));
+            Route best = solver.bestScoreRoute(new GameEngine(10, 1, seed));
+            if (safe == null) {
+                assertNull(best);
+                continue;
+            }
+            assertTrue(best.score() >= safe.score());
+            assertTrue(safe.length() <= 100);
+            for (Route route : new Route[] {safe, best}) {
+                byte last = follow(new GameEngine(10, 1, seed), route);
+                // Ranged shots are random, so an unlucky run may still die on the way
+                assertTrue(MoveOutcome.has(last, MoveOutcome.LEVEL_COMPLETE)
+                        || MoveOutcome.has(last, MoveOutcome.GAME_ENDED));
+            }
+            checked++;
+        }
+        assertTrue(checked > 100);
+    }
+
+    @Test
+    void testHintOnStreamedMapIsLocal() {
+        GameEngine engine = GameEngine.streamed(100_000, 1, 3L, 16);
+        RouteSolver solver = new RouteSolver();
+        // The exit is far outside the moves left, so there is no route
+        assertNull(solver.safestRoute(engine));
+        assertNull(solver.hint(engine));
+        engine.getMap().close();
+    }
+}
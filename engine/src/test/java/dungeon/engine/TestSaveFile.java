@@ -0,0 +1,123 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import static dungeon.engine.EngineAssertions.assertMatchesEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveFileTest {
+
+    // Saves a small game, lets edit change the bytes, fixes up the checksum
+    // so only the edit is wrong, and expects the load to fail a field check
+    private static void assertRejected(Consumer<ByteBuffer> edit) throws IOException {
+        Path file = Files.createTempFile("dungeon", ".sav");
+        try {
+            SaveFile.write(new GameEngine(10, 1, 5L), file);
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            edit.accept(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.array(), 0, bytes.capacity() - 4);
+            bytes.putInt(bytes.capacity() - 4, (int) crc.getValue());
+            Files.write(file, bytes.array());
+            IOException e = assertThrows(IOException.class, () -> SaveFile.read(file));
+            // Caught by a check, not by the catch-all around decoding
+            assertNull(e.getCause(), String.valueOf(e.getCause()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Offset of the first byte of a palette name in the save
+    private static int indexOf(ByteBuffer bytes, String name) {
+        byte[] wanted = name.getBytes(StandardCharsets.US_ASCII);
+        search:
+        for (int i = 0; i + wanted.length <= bytes.capacity(); i++) {
+            for (int j = 0; j < wanted.length; j++) {
+                if (bytes.get(i + j) != wanted[j]) {
+                    continue search;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError(name + " not in the save");
+    }
+
+    @Test
+    void testLoadedGameContinuesIdentically() throws IOException {
+        GameEngine original = new GameEngine(30, 3, 4242L);
+        SplittableRandom policy = new SplittableRandom(1L);
+        for (int i = 0; i < 40; i++) {
+            original.movePlayer(Direction.fromCode(policy.nextInt(4)));
+        }
+
+        Path file = Files.createTempFile("dungeon", ".sav");
+        try {
+            SaveFile.write(original, file);
+            GameEngine loaded = SaveFile.read(file);
+            assertMatchesEngine(original, loaded.getSnapshot());
+            assertEquals(original.getReplay().getMoveCount(), loaded.getReplay().getMoveCount());
+
+            for (int i = 0; i < 200 && !original.isGameCompleted(); i++) {
+                Direction move = Direction.fromCode(policy.nextInt(4));
+                assertEquals(original.movePlayer(move), loaded.movePlayer(move));
+            }
+            assertMatchesEngine(original, loaded.getSnapshot());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testCorruptSaveIsRejected() throws IOException {
+        Path file = Files.createTempFile("dungeon", ".sav");
+        try {
+            SaveFile.write(new GameEngine(10, 1, 5L), file);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> SaveFile.read(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testUnknownCellTypeIsRejected() throws IOException {
+        // Would otherwise load as floor
+        assertRejected(bytes -> bytes.put(indexOf(bytes, "WALL") + 1, (byte) 'E'));
+    }
+
+    // Where the entity count sits: past the fixed header, the palette and
+    // the 2-bit terrain of the 10x10 map
+    private static int entitiesOffset(ByteBuffer bytes) {
+        int offset = 67;
+        int names = bytes.get(offset++) & 0xFF;
+        for (int i = 0; i < names; i++) {
+            offset += 1 + (bytes.get(offset) & 0xFF);
+        }
+        return offset + 8 + (10 * 10 + 3) / 4;
+    }
+
+    @Test
+    void testOutOfRangeFieldsAreRejected() throws IOException {
+        assertRejected(bytes -> bytes.putInt(22, -1));                      // levels generated
+        assertRejected(bytes -> bytes.putInt(34, 3));                       // level
+        assertRejected(bytes -> bytes.putInt(38, -1));                      // HP
+        assertRejected(bytes -> bytes.putInt(42, -5));                      // score
+        assertRejected(bytes -> bytes.putInt(46, -1));                      // moves left
+        assertRejected(bytes -> bytes.putInt(50, 10));                      // player row
+        assertRejected(bytes -> bytes.putInt(54, 5));                       // player col, not the player's cell
+        assertRejected(bytes -> bytes.putInt(62, -1));                      // last exit col
+        assertRejected(bytes -> bytes.putInt(entitiesOffset(bytes), Integer.MAX_VALUE));
+        assertRejected(bytes -> bytes.put(entitiesOffset(bytes) + 4, (byte) 200));  // palette index
+        assertRejected(bytes -> bytes.putInt(entitiesOffset(bytes) + 5, 99));       // entity row
+        assertRejected(bytes -> bytes.putInt(bytes.capacity() - 8, Integer.MAX_VALUE)); // move count
+    }
+}
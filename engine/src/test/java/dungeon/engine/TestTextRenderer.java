@@ -0,0 +1,51 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextRendererTest {
+
+    @Test
+    void testPlainFrameMatchesClassicLayout() {
+        GameEngine engine = new GameEngine(10, 1, 3L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new PlainTextRenderer(new PrintStream(bytes, true, StandardCharsets.US_ASCII)).render(engine);
+
+        StringBuilder expected = new StringBuilder();
+        String border = "-".repeat(23) + System.lineSeparator();
+        expected.append(border);
+        for (int i = 0; i < 10; i++) {
+            expected.append("| ");
+            for (int j = 0; j < 10; j++) {
+                expected.append((char) TextRenderer.symbolAt(engine, i, j)).append(' ');
+            }
+            expected.append('|').append(System.lineSeparator());
+        }
+        expected.append(border);
+        assertEquals(expected.toString(), bytes.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testAnsiRewritesOnlyChangedTiles() {
+        GameEngine engine = new GameEngine(30, 1, 3L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AnsiTextRenderer renderer = new AnsiTextRenderer(new PrintStream(bytes, true, StandardCharsets.US_ASCII));
+        renderer.begin(engine);
+        renderer.render(engine);
+        int fullFrame = bytes.size();
+
+        for (Direction direction : Direction.values()) {
+            if (engine.movePlayer(direction)) {
+                break;
+            }
+        }
+        bytes.reset();
+        renderer.render(engine);
+        String update = bytes.toString(StandardCharsets.US_ASCII);
+        assertTrue(update.contains("P"));
+        assertTrue(update.length() < fullFrame / 20);
+    }
+}
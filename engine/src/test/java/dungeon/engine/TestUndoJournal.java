@@ -0,0 +1,145 @@
+package dungeon.engine;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import static dungeon.engine.EngineAssertions.assertMatchesEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoJournalTest {
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertMatchesEngine(expected, actual.getSnapshot());
+        assertEquals(expected.getReplay().getMoveCount(), actual.getReplay().getMoveCount());
+    }
+
+    // Accepted moves of a random game, so a fresh engine can be played to any point
+    private static List<Direction> play(GameEngine engine, long policySeed, int attempts) {
+        SplittableRandom random = new SplittableRandom(policySeed);
+        List<Direction> accepted = new ArrayList<>();
+        for (int i = 0; i < attempts && !engine.isGameCompleted(); i++) {
+            Direction direction = Direction.fromCode(random.nextInt(4));
+            if (engine.movePlayer(direction)) {
+                accepted.add(direction);
+            }
+        }
+        return accepted;
+    }
+
+    // A new game of the given size and difficulty played through the first moves
+    private static GameEngine fresh(int size, int difficulty, long seed, List<Direction> moves, int count) {
+        GameEngine engine = new GameEngine(size, difficulty, seed);
+        for (int i = 0; i < count; i++) {
+            assertTrue(engine.movePlayer(moves.get(i)));
+        }
+        return engine;
+    }
+
+    @Test
+    void testUndoReturnsToEveryEarlierState() {
+        GameEngine engine = new GameEngine(20, 3, 8L);
+        List<Direction> moves = play(engine, 2L, 60);
+        for (int undone = 1; undone <= moves.size(); undone++) {
+            assertTrue(engine.undo());
+            assertSameGame(fresh(20, 3, 8L, moves, moves.size() - undone), engine);
+        }
+        assertFalse(engine.undo());
+    }
+
+    @Test
+    void testRedoAndNewMovesPlayOutAsWithoutUndo() {
+        GameEngine engine = new GameEngine(20, 3, 13L);
+        List<Direction> moves = play(engine, 4L, 80);
+        for (int i = 0; i < 10; i++) {
+            engine.undo();
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(engine.redo());
+        }
+        assertSameGame(fresh(20, 3, 13L, moves, moves.size() - 6), engine);
+
+        // A new move drops the remaining redo moves, and combat rolls follow
+        // the rewound stream, so the game matches one that never undid
+        List<Direction> branch = new ArrayList<>(moves.subList(0, moves.size() - 6));
+        branch.addAll(play(engine, 99L, 30));
+        assertFalse(engine.canRedo());
+        assertSameGame(fresh(20, 3, 13L, branch, branch.size()), engine);
+    }
+
+    @Test
+    void testUndoAcrossLevelChange() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = new GameEngine(10, 1, seed);
+            Route route = new RouteSolver().safestRoute(engine);
+            if (route == null) {
+                continue;
+            }
+            List<Direction> moves = new ArrayList<>();
+            for (int i = 0; i < route.length(); i++) {
+                moves.add(route.getMove(i));
+                assertTrue(engine.movePlayer(route.getMove(i)));
+            }
+            assertEquals(2, engine.getGameState().getCurrentLevel());
+            GameEngine levelTwo = fresh(10, 1, seed, moves, moves.size());
+
+            assertTrue(engine.undo());
+            assertSameGame(fresh(10, 1, seed, moves, moves.size() - 1), engine);
+            assertTrue(engine.redo());
+            assertSameGame(levelTwo, engine);
+            return;
+        }
+        fail("no level with a safe route");
+    }
+
+    @Test
+    void testRewindDoesNotReplayEarlierDraws() {
+        // 2^40 earlier combat rolls would take hours to step through
+        GameEngine start = new GameEngine(20, 3, 21L);
+        MapSnapshot level = start.getSnapshot().map();
+        Cell[] cells = new Cell[20 * 20];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = level.getCell(i / 20, i % 20);
+        }
+        GameState state = new GameState(1, 3, 10, 0, 100, new GameState.Position(0, 0));
+        GameEngine engine = new GameEngine(21L, state, new ArrayMap(20, 20, cells),
+                new GameState.Position(19, 19), 1 << 20, 1L << 40, false, false, new Replay(21L, 20, 3));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            List<Direction> moves = play(engine, 5L, 60);
+            while (engine.undo()) {
+                moves.remove(moves.size() - 1);
+            }
+            assertTrue(moves.isEmpty());
+            assertEquals(1L << 40, engine.getCombatRolls());
+        });
+    }
+
+    @Test
+    void testHistoryIsBounded() {
+        GameEngine engine = new GameEngine(20, 3, 3L);
+        engine.setUndoDepth(5);
+        List<Direction> moves = play(engine, 6L, 40);
+        assertTrue(moves.size() > 5);
+        int undone = 0;
+        while (engine.undo()) {
+            undone++;
+        }
+        assertEquals(5, undone);
+        assertSameGame(fresh(20, 3, 3L, moves, moves.size() - 5), engine);
+
+        engine.setUndoDepth(0);
+        play(engine, 7L, 10);
+        assertFalse(engine.canUndo());
+    }
+
+    @Test
+    void testBlockedMovesAreNotRecorded() {
+        GameEngine engine = new GameEngine(20, 3, 3L);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(engine.movePlayer(Direction.UP)); // off the top edge
+        }
+        assertFalse(engine.canUndo());
+        assertEquals(100, engine.getGameState().getMovesLeft());
+    }
+}
@@ -0,0 +1,88 @@
+package dungeon.gui;
+
+import dungeon.engine.Cell;
+import dungeon.engine.EngineSnapshot;
+import dungeon.engine.MapSnapshot;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+// Paints the map onto a single Canvas through a camera that follows the
+// player. Only tiles inside the viewport are drawn, so the cost per frame
+// and the scene graph size do not depend on the map size.
+public class CanvasRenderer implements MapRenderer {
+    private static final int TILE_SIZE = 60;
+    // Laid over tiles the player remembers but cannot see right now
+    private static final Color REMEMBERED_SHADE = Color.rgb(0, 0, 0, 0.55);
+
+    private final Canvas canvas;
+    private final int viewportTiles;
+    private MapSnapshot shown;
+    private int cameraRow = -1;
+    private int cameraCol = -1;
+
+    public CanvasRenderer(int viewportTiles) {
+        this.viewportTiles = viewportTiles;
+        this.canvas = new Canvas(viewportTiles * TILE_SIZE, viewportTiles * TILE_SIZE);
+    }
+
+    @Override
+    public Node getNode() {
+        return canvas;
+    }
+
+    @Override
+    public void render(EngineSnapshot snapshot) {
+        MapSnapshot map = snapshot.map();
+        int visibleRows = Math.min(viewportTiles, map.getRows());
+        int visibleCols = Math.min(viewportTiles, map.getCols());
+
+        // Centre the camera on the player, clamped to the map edges
+        int top = clamp(snapshot.playerRow() - visibleRows / 2, map.getRows() - visibleRows);
+        int left = clamp(snapshot.playerCol() - visibleCols / 2, map.getCols() - visibleCols);
+
+        boolean sameView = top == cameraRow && left == cameraCol;
+        MapSnapshot previous = shown;
+        shown = map;
+        cameraRow = top;
+        cameraCol = left;
+
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        if (sameView && map.changedSince(previous,
+                (row, col) -> drawTile(graphics, map, row, col, top, left, visibleRows, visibleCols))) {
+            return;
+        }
+
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        for (int row = top; row < top + visibleRows; row++) {
+            for (int col = left; col < left + visibleCols; col++) {
+                drawTile(graphics, map, row, col, top, left, visibleRows, visibleCols);
+            }
+        }
+    }
+
+    private void drawTile(GraphicsContext graphics, MapSnapshot map, int row, int col,
+                          int top, int left, int visibleRows, int visibleCols) {
+        if (row < top || row >= top + visibleRows || col < left || col >= left + visibleCols) {
+            return; // culled: outside the viewport
+        }
+        double x = (col - left) * TILE_SIZE;
+        double y = (row - top) * TILE_SIZE;
+        Cell revealed = map.getRevealedCell(row, col);
+        if (revealed == null) {
+            graphics.setFill(Color.BLACK); // never seen
+            graphics.fillRect(x, y, TILE_SIZE, TILE_SIZE);
+            return;
+        }
+        graphics.drawImage(TileImages.forCell(revealed), x, y, TILE_SIZE, TILE_SIZE);
+        if (!map.isVisible(row, col)) {
+            graphics.setFill(REMEMBERED_SHADE);
+            graphics.fillRect(x, y, TILE_SIZE, TILE_SIZE);
+        }
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
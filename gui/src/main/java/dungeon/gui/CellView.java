@@ -0,0 +1,28 @@
+package dungeon.gui;
+
+import dungeon.engine.Cell;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+
+// One tile of the grid. Views are kept for the lifetime of the map and
+// repainted in place with setTile rather than rebuilt on every move.
+public class CellView extends StackPane {
+    private final ImageView imageView;
+    
+    // Dims tiles the player remembers but cannot see right now
+    private static final double REMEMBERED_OPACITY = 0.45;
+
+    public CellView(Cell revealed, boolean visible) {
+        this.imageView = new ImageView();
+        imageView.setFitWidth(60);
+        imageView.setFitHeight(60);
+        setTile(revealed, visible);
+        getChildren().add(imageView);
+    }
+    
+    // Blank until the player has seen the tile
+    public void setTile(Cell revealed, boolean visible) {
+        imageView.setImage(revealed == null ? null : TileImages.forCell(revealed));
+        imageView.setOpacity(visible ? 1.0 : REMEMBERED_OPACITY);
+    }
+}
@@ -0,0 +1,288 @@
+package dungeon.gui;
+
+import dungeon.engine.EngineSnapshot;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Route;
+import dungeon.engine.RouteSolver;
+import dungeon.engine.SaveFile;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import java.io.*;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class Controller {
+    @FXML private StackPane mapPane;
+    @FXML private VBox statsPane;
+    @FXML private Label healthLabel;
+    @FXML private Label scoreLabel;
+    @FXML private Label movesLabel;
+    @FXML private ListView<String> eventList;
+    @FXML private Label levelLabel;
+    @FXML private Button saveButton;
+    @FXML private Button loadButton;
+    @FXML private Button hintButton;
+    @FXML private Button undoButton;
+    @FXML private Button redoButton;
+    @FXML private Label hintLabel;
+    @FXML private Button upButton;
+    @FXML private Button downButton;
+    @FXML private Button leftButton;
+    @FXML private Button rightButton;
+    
+    // Maps with more tiles than this are drawn on a canvas instead of one node per tile
+    private static final int GRID_RENDERER_MAX_TILES = 400;
+    private static final int VIEWPORT_TILES = 10;
+    
+    // -Ddungeon.size=N picks the map size, -Ddungeon.renderer=grid|canvas forces a renderer
+    private final int mapSize = Integer.getInteger("dungeon.size", 10);
+    // -Ddungeon.cols=N makes the map N wide instead of square
+    private final int mapCols = Integer.getInteger("dungeon.cols", mapSize);
+    
+    // Moves, hints, saves and loads run on one engine thread, so a slow
+    // level generation or route search never stalls the FX thread. The FX
+    // thread only reads the snapshots the engine publishes. The engine field
+    // itself is only read and replaced on the FX thread; tasks capture it.
+    private final ExecutorService engineThread = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "dungeon-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private GameEngine engine;
+    private MapRenderer renderer;
+    private EventLog eventLog;
+    private boolean gameOverShown;
+    private final RouteSolver solver = new RouteSolver(); // engine thread only
+    
+    @FXML
+    public void initialize() {
+        engine = new GameEngine(mapSize, mapCols, 1, new SplittableRandom().nextLong());
+        eventLog = new EventLog(eventList);
+        eventLog.attach(engine);
+        renderer = createRenderer(mapSize, mapCols);
+        mapPane.getChildren().setAll(renderer.getNode());
+        setupEventHandlers();
+        updateGui();
+    }
+    
+    private MapRenderer createRenderer(int rows, int cols) {
+        String choice = System.getProperty("dungeon.renderer", "auto");
+        boolean useCanvas = switch (choice) {
+            case "grid" -> false;
+            case "canvas" -> true;
+            default -> (long) rows * cols > GRID_RENDERER_MAX_TILES;
+        };
+        return useCanvas ? new CanvasRenderer(VIEWPORT_TILES) : new GridRenderer();
+    }
+    
+    private void setupEventHandlers() {
+        // Existing handlers
+        saveButton.setOnAction(e -> saveGame());
+        loadButton.setOnAction(e -> loadGame());
+        hintButton.setOnAction(e -> showHint());
+        undoButton.setOnAction(e -> undo());
+        redoButton.setOnAction(e -> redo());
+        
+        // Direction button handlers
+        upButton.setOnAction(e -> movePlayer("UP"));
+        downButton.setOnAction(e -> movePlayer("DOWN"));
+        leftButton.setOnAction(e -> movePlayer("LEFT"));
+        rightButton.setOnAction(e -> movePlayer("RIGHT"));
+    }
+    
+    private void movePlayer(String direction) {
+        GameEngine target = engine;
+        engineThread.execute(() -> {
+            if (!target.isGameCompleted() && target.movePlayer(direction)) {
+                Platform.runLater(this::updateGui);
+            }
+        });
+    }
+    
+    private void undo() {
+        GameEngine target = engine;
+        engineThread.execute(() -> {
+            if (target.undo()) {
+                Platform.runLater(this::updateGui);
+            }
+        });
+    }
+    
+    private void redo() {
+        GameEngine target = engine;
+        engineThread.execute(() -> {
+            if (target.redo()) {
+                Platform.runLater(this::updateGui);
+            }
+        });
+    }
+    
+    // Update handleKeyPress to use the new movePlayer method
+    private void handleKeyPress(KeyEvent event) {
+        // Ctrl+Z / Ctrl+Y work after the game ends too, to take the last move back
+        if (event.isShortcutDown() && event.getCode() == KeyCode.Z) {
+            undo();
+            event.consume();
+            return;
+        }
+        if (event.isShortcutDown() && event.getCode() == KeyCode.Y) {
+            redo();
+            event.consume();
+            return;
+        }
+        if (engine.getSnapshot().gameCompleted()) return;
+        
+        switch (event.getCode()) {
+            case UP -> movePlayer("UP");
+            case DOWN -> movePlayer("DOWN");
+            case LEFT -> movePlayer("LEFT");
+            case RIGHT -> movePlayer("RIGHT");
+            default -> { }
+        }
+        
+        event.consume();
+    }
+
+public void setUpKeyHandlers() {
+    if (mapPane.getScene() != null) {
+        mapPane.getScene().setOnKeyPressed(this::handleKeyPress);
+    }
+}
+
+    // Implementation of step 4 - Save/Load functionality
+    private void saveGame() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Game");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Game saves", "*.sav")
+        );
+        
+        File file = fileChooser.showSaveDialog(mapPane.getScene().getWindow());
+        if (file != null) {
+            GameEngine target = engine;
+            Path path = file.toPath();
+            engineThread.execute(() -> {
+                try {
+                    SaveFile.write(target, path);
+                } catch (IOException e) {
+                    Platform.runLater(() -> showError("Error saving game: " + e.getMessage()));
+                }
+            });
+        }
+    }
+
+    private void loadGame() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Load Game");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Game saves", "*.sav")
+        );
+        
+        File file = fileChooser.showOpenDialog(mapPane.getScene().getWindow());
+        if (file != null) {
+            Path path = file.toPath();
+            engineThread.execute(() -> {
+                try {
+                    GameEngine loaded = SaveFile.read(path);
+                    Platform.runLater(() -> install(loaded));
+                } catch (IOException e) {
+                    Platform.runLater(() -> showError("Error loading game: " + e.getMessage()));
+                }
+            });
+        }
+    }
+
+    // Switches the window to a loaded game. Runs on the FX thread before any
+    // task for the new engine is queued, so the engine thread sees its sink.
+    private void install(GameEngine loaded) {
+        engine = loaded;
+        eventLog.attach(engine);
+        // The save may be for a different map size than the current renderer
+        renderer = createRenderer(engine.getRows(), engine.getCols());
+        mapPane.getChildren().setAll(renderer.getNode());
+        gameOverShown = false;
+        updateGui();
+    }
+
+    // Implementation of step 5 - Keyboard handling
+    // Implementation of step 6 - GUI updates
+    private void updateGui() {
+        EngineSnapshot state = engine.getSnapshot();
+        
+        // Update status labels
+        healthLabel.setText("Health: " + state.playerHP());
+        scoreLabel.setText("Score: " + state.score());
+        movesLabel.setText("Moves Left: " + state.movesLeft());
+        levelLabel.setText("Level " + state.level());
+        hintLabel.setText(""); // a hint is only good for the position it was asked in
+        
+        renderer.render(state);
+        eventLog.refresh();
+        
+        // Check for game over; an undo can take the game back out of it
+        if (!state.gameCompleted()) {
+            gameOverShown = false;
+        } else if (!gameOverShown) {
+            gameOverShown = true;
+            showGameOver(state);
+        }
+    }
+
+    private void showHint() {
+        GameEngine target = engine;
+        engineThread.execute(() -> {
+            if (target.isGameCompleted()) return;
+            Route route = solver.bestScoreRoute(target);
+            String hint = route == null || route.length() == 0
+                ? "No safe route to the exit"
+                : "Hint: " + route.getMove(0) + " (" + route.length() + " moves to exit)";
+            Platform.runLater(() -> hintLabel.setText(hint));
+        });
+    }
+
+    public void onSceneSet() {
+    setUpKeyHandlers();
+}
+
+    private void showError(String message) {
+        Alert alert = new Alert(AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    private void showGameOver(EngineSnapshot state) {
+        Alert alert = new Alert(AlertType.INFORMATION);
+        alert.setTitle("Game Over");
+        alert.setHeaderText("Game Completed!");
+        
+        String content = String.format("""
+            Final Score: %d
+            HP Remaining: %d
+            Moves Remaining: %d
+            Level Reached: %d
+            """, 
+            state.score(), 
+            state.playerHP(), 
+            state.movesLeft(), 
+            state.level()
+        );
+        
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package dungeon.gui;
+
+import dungeon.engine.GameEngine;
+import dungeon.engine.RingBufferEventSink;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
+
+// Shows the engine's game events in a list. The engine publishes into a
+// ring buffer and the list is filled from it on the FX thread, so the
+// engine never touches the scene graph.
+public class EventLog {
+    private static final int MAX_LINES = 100;
+
+    private final ListView<String> view;
+    private RingBufferEventSink events;
+
+    public EventLog(ListView<String> view) {
+        this.view = view;
+    }
+
+    // Call for every new or loaded engine
+    public void attach(GameEngine engine) {
+        events = new RingBufferEventSink(256);
+        engine.setEventSink(events);
+        view.getItems().clear();
+    }
+
+    public void refresh() {
+        ObservableList<String> items = view.getItems();
+        if (events.drain(event -> items.add(event.message().strip())) > 0) {
+            if (items.size() > MAX_LINES) {
+                items.remove(0, items.size() - MAX_LINES);
+            }
+            view.scrollTo(items.size() - 1);
+        }
+    }
+}
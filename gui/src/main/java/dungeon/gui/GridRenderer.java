@@ -0,0 +1,53 @@
+package dungeon.gui;
+
+import dungeon.engine.EngineSnapshot;
+import dungeon.engine.MapSnapshot;
+import javafx.scene.Node;
+import javafx.scene.layout.GridPane;
+
+// One CellView node per tile. Simple and crisp, but the scene graph grows
+// with the map, so it is only used for small maps.
+public class GridRenderer implements MapRenderer {
+    private final GridPane gridPane = new GridPane();
+    private CellView[][] cellViews; // persistent, repainted in place
+    private MapSnapshot shown;
+
+    @Override
+    public Node getNode() {
+        return gridPane;
+    }
+
+    // Repaints only the cells that differ from the last snapshot drawn. A new
+    // level or a loaded game repaints every view; views are only rebuilt on a
+    // resize.
+    @Override
+    public void render(EngineSnapshot snapshot) {
+        MapSnapshot map = snapshot.map();
+        int rows = map.getRows();
+        int cols = map.getCols();
+        
+        if (cellViews == null || cellViews.length != rows || cellViews[0].length != cols) {
+            gridPane.getChildren().clear();
+            cellViews = new CellView[rows][cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    cellViews[i][j] = new CellView(map.getRevealedCell(i, j), map.isVisible(i, j));
+                    gridPane.add(cellViews[i][j], j, i);
+                }
+            }
+            shown = map;
+            return;
+        }
+        
+        boolean incremental = map.changedSince(shown,
+            (row, col) -> cellViews[row][col].setTile(map.getRevealedCell(row, col), map.isVisible(row, col)));
+        if (!incremental) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    cellViews[i][j].setTile(map.getRevealedCell(i, j), map.isVisible(i, j));
+                }
+            }
+        }
+        shown = map;
+    }
+}
@@ -0,0 +1,14 @@
+package dungeon.gui;
+
+import dungeon.engine.EngineSnapshot;
+import javafx.scene.Node;
+
+// Draws the engine map in the centre of the window. Controller picks the
+// implementation: GridRenderer for small maps, CanvasRenderer for large ones.
+public interface MapRenderer {
+    Node getNode();
+
+    // Brings the display up to date with a snapshot published after a move
+    // or load. Called on the FX thread; never touches the engine itself.
+    void render(EngineSnapshot snapshot);
+}
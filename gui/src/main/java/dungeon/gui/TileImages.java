@@ -0,0 +1,49 @@
+package dungeon.gui;
+
+import dungeon.engine.Cell;
+import dungeon.engine.CellCodes;
+import javafx.scene.image.Image;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Decodes every tile image once at startup and shares it between all views.
+// Images are looked up by cell code, so drawing a tile is an array read.
+public final class TileImages {
+    private static final String IMAGE_PATH = "/images/";
+    private static final Image FLOOR = load("floor.png");
+    private static final Image[] BY_CODE = new Image[CellCodes.count()];
+
+    static {
+        Map<String, Image> images = new HashMap<>();
+        images.put("PLAYER", load("player.png"));
+        images.put("WALL", load("wall.png"));
+        images.put("EMPTY", FLOOR);
+        images.put("EXIT", load("exit.png"));
+        images.put("TRAP", load("trap.png"));
+        images.put("GOLD", load("gold.png"));
+        images.put("HEALTH_POTION", load("potion.png"));
+        images.put("MELEE_MUTANT", load("mutant.png"));
+        images.put("RANGED_MUTANT", load("ranger.png"));
+        for (int code = 0; code < BY_CODE.length; code++) {
+            BY_CODE[code] = images.getOrDefault(CellCodes.typeName(code), FLOOR);
+        }
+    }
+
+    private TileImages() {
+    }
+
+    public static Image forCell(Cell cell) {
+        return BY_CODE[cell.getCode()];
+    }
+
+    private static Image load(String imageName) {
+        String imagePath = IMAGE_PATH + imageName;
+        var imageStream = TileImages.class.getResourceAsStream(imagePath);
+        if (imageStream == null)
+        {
+            throw new IllegalStateException("Cannot find image: " + imagePath);
+        }
+        return new Image(imageStream);
+    }
+}
@@ -1,7 +1,8 @@
 module dungeon.gui {
+    requires dungeon.engine;
     requires javafx.controls;
     requires javafx.fxml;
     
     opens dungeon.gui to javafx.fxml;
     exports dungeon.gui;
-}
\ No newline at end of file
+}